@@ -90,9 +90,9 @@ export default function AdminDashboard() {
       if (status === "IDLE" || status === "STREAMING") setSystemStatus(status);
     });
 
+    // Keep the connection open: the browser reconnects with Last-Event-ID and the server replays what was missed
     eventSource.onerror = (err) => {
-      console.error("SSE Connection Error:", err);
-      eventSource.close();
+      console.warn("SSE connection interrupted, reconnecting:", err);
     };
 
     return () => {
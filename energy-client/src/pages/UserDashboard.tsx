@@ -96,8 +96,9 @@ export default function UserDashboard() {
       if (status === "IDLE" || status === "STREAMING") setSystemStatus(status);
     });
 
-    eventSource.onerror = () => {
-      eventSource.close();
+    // Keep the connection open: the browser reconnects with Last-Event-ID and the server replays what was missed
+    eventSource.onerror = (err) => {
+      console.warn("SSE connection interrupted, reconnecting:", err);
     };
 
     return () => eventSource.close();
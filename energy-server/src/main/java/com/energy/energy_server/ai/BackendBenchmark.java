@@ -0,0 +1,86 @@
+package com.energy.energy_server.ai;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+
+/**
+ * Parity and single-sample latency of the ND4J and plain-Java inference backends.
+ * Every CSV window is scored by both; the max absolute difference must stay within
+ * {@link #TOLERANCE_KWH}. Timing runs a warm-up pass, then several measured passes.
+ *
+ * <p>Usage: BackendBenchmark [measuredPasses]
+ */
+public class BackendBenchmark {
+
+    private static final double TOLERANCE_KWH = 1e-3;
+
+    public static void main(String[] args) throws Exception {
+        int passes = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        File modelFile = new File(ModelConfig.MODEL_EXPORT_PATH);
+        File normFile = new File(ModelConfig.NORMALIZER_EXPORT_PATH);
+        if (!modelFile.exists() || !normFile.exists()) {
+            System.err.println("Error: Trained model or normalizer not found. Run Train.java first.");
+            return;
+        }
+        MultiLayerNetwork model = ModelSerializer.restoreMultiLayerNetwork(modelFile);
+        NormalizerStandardize normalizer = NormalizerSerializer.getDefault().restore(normFile);
+        JavaLstmEngine engine = new JavaLstmEngine(model, normalizer);
+
+        FeatureEngine.Series series = FeatureEngine.loadCsv(new File(ModelConfig.CSV_PATH));
+        int samples = series.sampleCount();
+        float[] flat = series.windows(0, samples).data().asFloat();
+        float[][] windows = new float[samples][InferenceBatcher.WINDOW_LENGTH];
+        for (int i = 0; i < samples; i++) {
+            System.arraycopy(flat, i * InferenceBatcher.WINDOW_LENGTH, windows[i], 0, InferenceBatcher.WINDOW_LENGTH);
+        }
+
+        // 1. PARITY
+        double maxDiff = 0.0;
+        for (float[] window : windows) {
+            maxDiff = Math.max(maxDiff, Math.abs(nd4j(model, normalizer, window) - engine.predict(window)));
+        }
+        System.out.printf("%nParity over %d windows | max |nd4j - java| = %.6f kWh -> %s%n",
+                samples, maxDiff, maxDiff <= TOLERANCE_KWH ? "OK" : "MISMATCH");
+
+        // 2. LATENCY (single-threaded, one window per call)
+        double[] sink = new double[1];
+        for (float[] window : windows) {
+            sink[0] += nd4j(model, normalizer, window) + engine.predict(window);
+        }
+        long nd4jNanos = 0;
+        long javaNanos = 0;
+        for (int p = 0; p < passes; p++) {
+            long t0 = System.nanoTime();
+            for (float[] window : windows) sink[0] += nd4j(model, normalizer, window);
+            long t1 = System.nanoTime();
+            for (float[] window : windows) sink[0] += engine.predict(window);
+            long t2 = System.nanoTime();
+            nd4jNanos += t1 - t0;
+            javaNanos += t2 - t1;
+        }
+        long calls = (long) passes * samples;
+        System.out.println("=".repeat(55));
+        System.out.printf("ND4J backend: %10.2f us/prediction | %,12.0f predictions/s%n",
+                nd4jNanos / 1e3 / calls, calls / (nd4jNanos / 1e9));
+        System.out.printf("Java backend: %10.2f us/prediction | %,12.0f predictions/s%n",
+                javaNanos / 1e3 / calls, calls / (javaNanos / 1e9));
+        System.out.printf("Speed-up: %.1fx (checksum %.1f)%n", (double) nd4jNanos / javaNanos, sink[0]);
+        System.out.println("=".repeat(55));
+    }
+
+    private static double nd4j(MultiLayerNetwork model, NormalizerStandardize normalizer, float[] window) {
+        INDArray input = Nd4j.create(window, new long[]{1, ModelConfig.INPUT_FEATURES, ModelConfig.TIME_STEPS}, 'c');
+        normalizer.transform(input);
+        double normPred = model.output(input).getDouble(0, 0, ModelConfig.TIME_STEPS - 1);
+        double mean = normalizer.getLabelMean().getDouble(0);
+        double std = normalizer.getLabelStd().getDouble(0);
+        return Math.max(0.0, (normPred * std) + mean);
+    }
+}
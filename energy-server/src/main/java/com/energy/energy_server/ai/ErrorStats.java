@@ -0,0 +1,56 @@
+package com.energy.energy_server.ai;
+
+import java.util.Arrays;
+
+/**
+ * Absolute forecast errors in kWh, kept individually so that percentiles are exact.
+ * Metrics of an empty set are 0. Not thread-safe: accumulate per thread and {@link #merge} afterwards.
+ */
+public final class ErrorStats {
+
+    private float[] errors = new float[256];
+    private int count;
+    private double sumAbs;
+    private double sumSquares;
+
+    public void add(double predicted, double actual) {
+        double error = Math.abs(predicted - actual);
+        if (count == errors.length) {
+            errors = Arrays.copyOf(errors, count * 2);
+        }
+        errors[count++] = (float) error;
+        sumAbs += error;
+        sumSquares += error * error;
+    }
+
+    public void merge(ErrorStats other) {
+        if (count + other.count > errors.length) {
+            errors = Arrays.copyOf(errors, Math.max(errors.length * 2, count + other.count));
+        }
+        System.arraycopy(other.errors, 0, errors, count, other.count);
+        count += other.count;
+        sumAbs += other.sumAbs;
+        sumSquares += other.sumSquares;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public double mae() {
+        return count == 0 ? 0.0 : sumAbs / count;
+    }
+
+    public double rmse() {
+        return count == 0 ? 0.0 : Math.sqrt(sumSquares / count);
+    }
+
+    /** Nearest-rank percentile of the absolute error, {@code p} in (0, 100]. */
+    public double percentile(double p) {
+        if (count == 0) return 0.0;
+        float[] sorted = Arrays.copyOf(errors, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)];
+    }
+}
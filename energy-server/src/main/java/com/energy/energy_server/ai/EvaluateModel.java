@@ -1,92 +1,306 @@
 package com.energy.energy_server.ai;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
 import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
-import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.point;
 
 /**
- * Technical evaluation of the trained Digital Twin.
- * Calculates the Mean Absolute Error (MAE) in real kWh units.
+ * Technical evaluation of the trained Digital Twin as a rolling-origin backtest.
+ *
+ * <p>The history after the first {@code backtest.min-train-ratio} is cut into consecutive
+ * folds; fold k forecasts every hour from its origin (the end of fold k-1) up to the next one.
+ * By default every fold is scored with the exported model, so the ratio defaults to, and may
+ * not go below, {@code TRAIN_RATIO}: earlier folds would be in-sample. (The folds are still the
+ * split Train early-stopped on, and in database mode {@code from}/{@code to} must match the
+ * training run.) With {@code -Dbacktest.retrain=true} a fresh model is instead trained on the
+ * history before each origin, with Train's loop and split, so any ratio gives an out-of-sample
+ * score; {@code backtest.epochs} caps those runs.
+ * Folds are scored in parallel, each on its own copy of the network. MAE, RMSE and p95
+ * absolute error are reported per fold, per hour of day and overall (real kWh units), and
+ * written as JSON to {@code backtest.output}. With {@code -Dbacktest.max-mae=X} the exit code
+ * is non-zero when the overall MAE exceeds X, so a regression can fail a deploy pipeline.
+ *
+ * <p>Usage: EvaluateModel [folds] [threads]  (data source flags as for Train)
  */
 public class EvaluateModel {
-    public static void main(String[] args) throws Exception {
-        // 1. LOAD EXPORTED ASSETS
-        File modelFile = new File(ModelConfig.MODEL_EXPORT_PATH);
-        File normFile = new File(ModelConfig.NORMALIZER_EXPORT_PATH);
 
-        if (!modelFile.exists() || !normFile.exists()) {
-            System.err.println("Error: Trained model or normalizer not found. Run Train.java first.");
-            return;
+    // Evaluation batches bound memory, not accuracy: any size gives the same MAE
+    private static final int EVAL_BATCH_SIZE = 1024;
+    private static final int HOURS = 24;
+
+    /** One fold: where its forecasts start, how to stream its samples and the history before them. */
+    private record Fold(int index, String origin, Callable<DataSetIterator> samples, Callable<History> history) {}
+
+    /** The samples before a fold's origin, split chronologically as Train splits the full history. */
+    private record History(DataSetIterator train, DataSetIterator validation, int trainSamples, int validationSamples) {}
+
+    public record Metrics(int samples, double mae, double rmse, double p95) {
+        static Metrics of(ErrorStats stats) {
+            return new Metrics(stats.count(), stats.mae(), stats.rmse(), stats.percentile(95));
         }
+    }
 
-        MultiLayerNetwork model = ModelSerializer.restoreMultiLayerNetwork(modelFile);
-        NormalizerStandardize normalizer = NormalizerSerializer.getDefault().restore(normFile);
+    public record FoldResult(int fold, String origin, Metrics metrics) {}
 
-        // 2. DATA PREPARATION
-        // We use the same engineering logic from the Training class for consistency
-        List<double[]> data = Train.loadAndEngineerData(new File(ModelConfig.CSV_PATH));
-        
-        int timeSteps = ModelConfig.TIME_STEPS;
-        int numSamples = data.size() - timeSteps;
-        int numFeatures = ModelConfig.INPUT_FEATURES;
+    public record HourResult(int hour, Metrics metrics) {}
 
-        INDArray features = Nd4j.create(new int[]{numSamples, numFeatures, timeSteps}, 'c');
-        double[] actualsKwh = new double[numSamples];
+    public record Report(String model, String source, boolean retrained, LocalDateTime generatedAt, int folds,
+                         Metrics overall, List<FoldResult> perFold, List<HourResult> perHour) {}
 
-        for (int i = 0; i < numSamples; i++) {
-            for (int t = 0; t < timeSteps; t++) {
-                double[] row = data.get(i + t);
-                for (int f = 0; f < numFeatures; f++) {
-                    features.putScalar(new int[]{i, f, t}, row[f]);
-                }
+    private static final class FoldErrors {
+        final ErrorStats all = new ErrorStats();
+        final ErrorStats[] byHour = new ErrorStats[HOURS];
+
+        FoldErrors() {
+            for (int h = 0; h < HOURS; h++) byHour[h] = new ErrorStats();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int folds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        boolean retrain = Boolean.getBoolean("backtest.retrain");
+        int maxEpochs = Integer.getInteger("backtest.epochs", ModelConfig.EPOCHS);
+        double minTrainRatio = Double.parseDouble(
+                System.getProperty("backtest.min-train-ratio", String.valueOf(ModelConfig.TRAIN_RATIO)));
+        File output = new File(System.getProperty("backtest.output",
+                ModelConfig.DATA_FOLDER + File.separator + "backtest" + File.separator + "backtest.json"));
+
+        if (minTrainRatio <= 0 || minTrainRatio >= 1) {
+            System.err.println("Error: backtest.min-train-ratio must be between 0 and 1.");
+            System.exit(1);
+        }
+        if (!retrain && minTrainRatio < ModelConfig.TRAIN_RATIO) {
+            // The exported model was fitted on the first TRAIN_RATIO of the history
+            System.err.printf("Error: folds before the training cutoff (%.2f) would be in-sample. "
+                    + "Raise backtest.min-train-ratio or pass -Dbacktest.retrain=true.%n", ModelConfig.TRAIN_RATIO);
+            System.exit(1);
+        }
+
+        // 1. LOAD EXPORTED ASSETS (unless every fold gets its own model)
+        File modelFile = new File(ModelConfig.MODEL_EXPORT_PATH);
+        File normFile = new File(ModelConfig.NORMALIZER_EXPORT_PATH);
+        MultiLayerNetwork model = null;
+        NormalizerStandardize normalizer = null;
+        if (!retrain) {
+            if (!modelFile.exists() || !normFile.exists()) {
+                System.err.println("Error: Trained model or normalizer not found. Run Train.java first.");
+                return;
             }
-            // Target is the consumption at index 6 of the row following the window
-            actualsKwh[i] = data.get(i + timeSteps)[6];
+            model = ModelSerializer.restoreMultiLayerNetwork(modelFile);
+            normalizer = NormalizerSerializer.getDefault().restore(normFile);
         }
 
-        // 3. INFERENCE
-        // Apply training normalization parameters to the test features
-        normalizer.transform(features);
-        INDArray predictionsNormalized = model.output(features);
+        // 2. FOLDS
+        // Same feature engine as training and live serving; -Ddata.source=db streams the readings table
+        boolean database = ReadingsDataSetIterator.requested();
+        List<Fold> plan = database ? databaseFolds(folds, minTrainRatio) : csvFolds(folds, minTrainRatio);
+        if (plan.isEmpty()) {
+            System.err.println("Error: Not enough samples to backtest.");
+            return;
+        }
+
+        // 3. PARALLEL EVALUATION
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, plan.size())));
+        List<Future<FoldErrors>> pending = new ArrayList<>();
+        for (Fold fold : plan) {
+            if (retrain) {
+                pending.add(pool.submit(() -> {
+                    Train.Fitted fitted = retrain(fold, maxEpochs);
+                    return evaluate(fitted.model(), fitted.normalizer(), fold);
+                }));
+            } else {
+                MultiLayerNetwork replica = model.clone();
+                NormalizerStandardize shared = normalizer;
+                pending.add(pool.submit(() -> evaluate(replica, shared, fold)));
+            }
+        }
 
         // 4. PERFORMANCE METRICS CALCULATION
-        double totalAbsError = 0;
-        int count = 0;
-
-        System.out.println("\n--- Sample Predictions (First 10 records) ---");
-        for (int i = 0; i < numSamples; i++) {
-            // Extract the prediction for the last timestep
-            double normPred = predictionsNormalized.getDouble(i, 0, timeSteps - 1);
-            
-            // Revert normalization to get real kWh
-            double predKwh = denormalize(normPred, normalizer);
-            double realKwh = actualsKwh[i];
-
-            totalAbsError += Math.abs(predKwh - realKwh);
-            count++;
-
-            if (i < 10) {
-                System.out.printf("Actual: %6.2f kWh | Predicted: %6.2f kWh | Abs Error: %5.2f\n", 
-                                  realKwh, predKwh, Math.abs(predKwh - realKwh));
+        ErrorStats overall = new ErrorStats();
+        ErrorStats[] byHour = new ErrorStats[HOURS];
+        for (int h = 0; h < HOURS; h++) byHour[h] = new ErrorStats();
+        List<FoldResult> perFold = new ArrayList<>();
+        try {
+            for (int i = 0; i < plan.size(); i++) {
+                FoldErrors errors = pending.get(i).get();
+                perFold.add(new FoldResult(i, plan.get(i).origin(), Metrics.of(errors.all)));
+                overall.merge(errors.all);
+                for (int h = 0; h < HOURS; h++) byHour[h].merge(errors.byHour[h]);
             }
+        } finally {
+            pool.shutdownNow();
+        }
+        List<HourResult> perHour = new ArrayList<>();
+        for (int h = 0; h < HOURS; h++) {
+            perHour.add(new HourResult(h, Metrics.of(byHour[h])));
         }
+        Metrics total = Metrics.of(overall);
+
+        System.out.printf("%nBacktest: %d folds on %s%s in %.1f s%n", plan.size(),
+                database ? "database readings" : ModelConfig.CSV_PATH, retrain ? " (retrained per origin)" : "",
+                (System.nanoTime() - start) / 1e9);
+        System.out.println("\n--- Per fold ---");
+        for (FoldResult f : perFold) {
+            print("Fold " + f.fold() + " @ " + f.origin(), f.metrics());
+        }
+        System.out.println("\n--- Per hour of day (target hour) ---");
+        for (HourResult h : perHour) {
+            if (h.metrics().samples() > 0) print(String.format("%02d:00", h.hour()), h.metrics());
+        }
+
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output, new Report(retrain ? "retrained per origin" : modelFile.getPath(),
+                        database ? "db" : ModelConfig.CSV_PATH, retrain, LocalDateTime.now(), plan.size(), total, perFold, perHour));
 
-        double finalMae = totalAbsError / count;
         System.out.println("\n" + "=".repeat(45));
-        System.out.printf("FINAL MAE (Java Implementation): %.4f kWh\n", finalMae);
+        System.out.printf("FINAL MAE (Java Implementation): %.4f kWh | RMSE: %.4f | p95: %.4f\n", total.mae(), total.rmse(), total.p95());
         System.out.println("=".repeat(45));
-        
-        if (finalMae < 4.2) {
+        System.out.println("Results written to " + output.getPath());
+
+        if (total.mae() < 4.2) {
             System.out.println("SUCCESS: Model performance is aligned with Python baseline.");
         } else {
             System.out.println("NOTICE: Performance variance detected. Check feature alignment.");
         }
+
+        String maxMae = System.getProperty("backtest.max-mae");
+        if (maxMae != null && total.mae() > Double.parseDouble(maxMae)) {
+            System.err.printf("REGRESSION: overall MAE %.4f kWh exceeds the %s kWh gate%n", total.mae(), maxMae);
+            System.exit(2);
+        }
+    }
+
+    private static List<Fold> csvFolds(int folds, double minTrainRatio) throws Exception {
+        FeatureEngine.Series series = FeatureEngine.loadCsv(new File(ModelConfig.CSV_PATH));
+        int samples = series.sampleCount();
+        int first = (int) (samples * minTrainRatio);
+        int foldSize = (samples - first) / Math.max(1, folds);
+        List<Fold> plan = new ArrayList<>();
+        if (foldSize == 0) return plan;
+        for (int k = 0; k < folds; k++) {
+            int from = first + k * foldSize;
+            int to = k == folds - 1 ? samples : from + foldSize;
+            plan.add(new Fold(k, "sample " + from,
+                    () -> new SeriesDataSetIterator(series, from, to, EVAL_BATCH_SIZE, null),
+                    () -> {
+                        int split = (int) (from * ModelConfig.TRAIN_RATIO);
+                        return new History(
+                                new SeriesDataSetIterator(series, 0, split, ModelConfig.BATCH_SIZE, new Random(ModelConfig.SEED)),
+                                new SeriesDataSetIterator(series, split, from, ModelConfig.BATCH_SIZE, null),
+                                split, from - split);
+                    }));
+        }
+        return plan;
+    }
+
+    private static List<Fold> databaseFolds(int folds, double minTrainRatio) throws Exception {
+        LocalDateTime from = ReadingsDataSetIterator.fromProperty();
+        LocalDateTime to = ReadingsDataSetIterator.toProperty();
+        List<Fold> plan = new ArrayList<>();
+        LocalDateTime origin = ReadingsDataSetIterator.splitPoint(from, to, minTrainRatio);
+        if (origin == null) return plan;
+        for (int k = 0; k < folds; k++) {
+            LocalDateTime foldStart = origin;
+            LocalDateTime foldEnd = k == folds - 1 ? to
+                    : ReadingsDataSetIterator.splitPoint(from, to, minTrainRatio + (k + 1) * (1.0 - minTrainRatio) / folds);
+            // One connection per fold, opened on the worker thread
+            plan.add(new Fold(k, foldStart.toString(),
+                    () -> ReadingsDataSetIterator.open(foldStart, foldEnd, EVAL_BATCH_SIZE),
+                    () -> {
+                        LocalDateTime split = ReadingsDataSetIterator.splitPoint(from, foldStart, ModelConfig.TRAIN_RATIO);
+                        ReadingsDataSetIterator train = ReadingsDataSetIterator.open(from, split, ModelConfig.BATCH_SIZE);
+                        try {
+                            ReadingsDataSetIterator validation = ReadingsDataSetIterator.open(split, foldStart, ModelConfig.BATCH_SIZE);
+                            return new History(train, validation, train.sampleCount(), validation.sampleCount());
+                        } catch (Exception e) {
+                            train.close();
+                            throw e;
+                        }
+                    }));
+            origin = foldEnd;
+        }
+        return plan;
+    }
+
+    /** Trains a model on the fold's history only, so the fold itself stays out-of-sample. */
+    private static Train.Fitted retrain(Fold fold, int maxEpochs) throws Exception {
+        File checkpoint = File.createTempFile("backtest-fold-" + fold.index() + "-", ".zip");
+        History history = fold.history().call();
+        try {
+            // Folds already train in parallel: one worker each
+            return Train.fit(history.train(), history.validation(),
+                    history.trainSamples(), history.validationSamples(), 1, maxEpochs, checkpoint);
+        } finally {
+            if (history.train() instanceof AutoCloseable c) c.close();
+            if (history.validation() instanceof AutoCloseable c) c.close();
+            checkpoint.delete();
+        }
+    }
+
+    private static FoldErrors evaluate(MultiLayerNetwork model, NormalizerStandardize normalizer, Fold fold) throws Exception {
+        int timeSteps = ModelConfig.TIME_STEPS;
+        int features = FeatureEngine.FEATURES;
+        FoldErrors errors = new FoldErrors();
+        DataSetIterator samples = fold.samples().call();
+        try {
+            while (samples.hasNext()) {
+                DataSet batch = samples.next();
+                // Target is the consumption of the row following the window (raw kWh, last timestep)
+                INDArray actualsKwh = batch.getLabels();
+                INDArray input = batch.getFeatures();
+                // Hour of the last window row, before normalization (HourSin, HourCos are features 4 and 5)
+                INDArray hourSin = input.get(all(), point(features - 2), point(timeSteps - 1)).dup();
+                INDArray hourCos = input.get(all(), point(features - 1), point(timeSteps - 1)).dup();
+
+                // Apply training normalization parameters to the test features
+                normalizer.transform(input);
+                INDArray predictionsNormalized = model.output(input);
+
+                for (int i = 0; i < batch.numExamples(); i++) {
+                    // Extract the prediction for the last timestep and revert normalization to get real kWh
+                    double predKwh = denormalize(predictionsNormalized.getDouble(i, 0, timeSteps - 1), normalizer);
+                    double realKwh = actualsKwh.getDouble(i, 0, timeSteps - 1);
+                    // Readings are hourly: the target is one hour after the last window row
+                    int hour = (FeatureEngine.hourOf(hourSin.getDouble(i), hourCos.getDouble(i)) + 1) % HOURS;
+
+                    errors.all.add(predKwh, realKwh);
+                    errors.byHour[hour].add(predKwh, realKwh);
+                }
+            }
+        } finally {
+            if (samples instanceof AutoCloseable c) c.close();
+        }
+        return errors;
+    }
+
+    private static void print(String label, Metrics m) {
+        System.out.printf("%-32s | Samples: %7d | MAE: %6.3f | RMSE: %6.3f | p95: %6.3f kWh%n",
+                label, m.samples(), m.mae(), m.rmse(), m.p95());
     }
 
     private static double denormalize(double value, NormalizerStandardize norm) {
@@ -94,4 +308,4 @@ public class EvaluateModel {
         double std = norm.getLabelStd().getDouble(0);
         return (value * std) + mean;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package com.energy.energy_server.ai;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Arrays;
+
+/**
+ * Single source of feature engineering for training, evaluation and serving.
+ * Row layout: Temp, Occ, Switch, Lag1h, HourSin, HourCos.
+ *
+ * <p>Feature 2 is the {@code LightingUsage} column: that is what the deployed model was
+ * trained on ({@code Train} always read CSV column 6), so serving must use it too.
+ * Lag1h of the first row of a series is its own consumption.
+ */
+public final class FeatureEngine {
+
+    public static final int FEATURES = ModelConfig.INPUT_FEATURES;
+
+    private FeatureEngine() {
+    }
+
+    /** Writes one engineered row into {@code dst[offset .. offset + FEATURES)}. */
+    public static void engineer(double temperature, double occupancy, String lightingUsage, double lag, int hour,
+                                float[] dst, int offset) {
+        dst[offset] = (float) temperature;
+        dst[offset + 1] = (float) occupancy;
+        dst[offset + 2] = "On".equalsIgnoreCase(lightingUsage) ? 1.0f : 0.0f;
+        dst[offset + 3] = (float) lag;
+        dst[offset + 4] = (float) Math.sin(2 * Math.PI * hour / 24.0);
+        dst[offset + 5] = (float) Math.cos(2 * Math.PI * hour / 24.0);
+    }
+
+    /** Hour of day encoded by the HourSin / HourCos features. */
+    public static int hourOf(double hourSin, double hourCos) {
+        double hour = Math.atan2(hourSin, hourCos) * 24 / (2 * Math.PI);
+        return (int) Math.round(hour < 0 ? hour + 24 : hour) % 24;
+    }
+
+    /** Hour of day of the last step of a feature-major window. */
+    public static int lastHour(float[] window) {
+        int steps = ModelConfig.TIME_STEPS;
+        return hourOf(window[4 * steps + steps - 1], window[5 * steps + steps - 1]);
+    }
+
+    /**
+     * Advances the feature-major window at {@code windows[offset ..]} by one hour for
+     * autoregressive forecasting: rows shift one step and the new last step keeps the previous
+     * conditions, with Lag1h = {@code lag} (consumption of the step before) and the hour encoding
+     * of {@code hour}.
+     */
+    public static void rollWindow(float[] windows, int offset, double lag, int hour) {
+        int steps = ModelConfig.TIME_STEPS;
+        for (int f = 0; f < FEATURES; f++) {
+            int row = offset + f * steps;
+            System.arraycopy(windows, row + 1, windows, row, steps - 1);
+        }
+        int last = offset + steps - 1;
+        windows[last + 3 * steps] = (float) lag;
+        windows[last + 4 * steps] = (float) Math.sin(2 * Math.PI * hour / 24.0);
+        windows[last + 5 * steps] = (float) Math.cos(2 * Math.PI * hour / 24.0);
+    }
+
+    /**
+     * Engineered rows of a whole series, row-major in one flat array,
+     * plus the raw consumption of each row (the training target).
+     */
+    public record Series(float[] features, double[] consumption, int size) {
+
+        /**
+         * Bulk-builds the {@code [count, FEATURES, TIME_STEPS]} window tensor starting at
+         * {@code from}: window i covers rows {@code from + i .. from + i + TIME_STEPS - 1}.
+         */
+        public INDArray windows(int from, int count) {
+            int steps = ModelConfig.TIME_STEPS;
+            float[] flat = new float[count * FEATURES * steps];
+            for (int i = 0; i < count; i++) {
+                int base = i * FEATURES * steps;
+                for (int t = 0; t < steps; t++) {
+                    int row = (from + i + t) * FEATURES;
+                    for (int f = 0; f < FEATURES; f++) {
+                        flat[base + f * steps + t] = features[row + f];
+                    }
+                }
+            }
+            return Nd4j.create(flat, new long[]{count, FEATURES, steps}, 'c');
+        }
+
+        /** Target of the window starting at {@code windowStart}: consumption of the following row. */
+        public double target(int windowStart) {
+            return consumption[windowStart + ModelConfig.TIME_STEPS];
+        }
+
+        /** Number of complete (window, target) samples. */
+        public int sampleCount() {
+            return Math.max(0, size - ModelConfig.TIME_STEPS);
+        }
+    }
+
+    public static Series loadCsv(File file) throws Exception {
+        float[] features = new float[1024 * FEATURES];
+        double[] consumption = new double[1024];
+        int size = 0;
+
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line = br.readLine(); // skip header
+            double lastConsumption = Double.NaN;
+
+            while ((line = br.readLine()) != null) {
+                String[] p = line.split(",");
+                if (p.length < 11) continue; // Skip malformed lines
+
+                try {
+                    double temp = Double.parseDouble(p[1]);
+                    double occ = Double.parseDouble(p[4]);
+                    double value = Double.parseDouble(p[10]);
+                    int hour = extractHour(p[0]);
+                    double lag = Double.isNaN(lastConsumption) ? value : lastConsumption;
+
+                    if (size == consumption.length) {
+                        consumption = Arrays.copyOf(consumption, size * 2);
+                        features = Arrays.copyOf(features, size * 2 * FEATURES);
+                    }
+                    engineer(temp, occ, p[6].trim(), lag, hour, features, size * FEATURES);
+                    consumption[size++] = value;
+                    lastConsumption = value;
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    // Skip lines with parsing errors
+                }
+            }
+        }
+        return new Series(features, consumption, size);
+    }
+
+    private static int extractHour(String timestamp) {
+        try {
+            // Handles "2024-01-01 15:00:00" or "15:00:00"
+            String timePart = timestamp.contains(" ") ? timestamp.split(" ")[1] : timestamp;
+            return Integer.parseInt(timePart.split(":")[0]);
+        } catch (Exception e) {
+            return 0; // Default fallback
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.energy.energy_server.ai;
+
+/**
+ * Primitive ring buffer of the last {@code TIME_STEPS} engineered rows.
+ * Lag1h is derived from the previously appended consumption with the same rule as
+ * {@link FeatureEngine#loadCsv}, so online windows are built exactly like training ones.
+ *
+ * <p>{@link #sequence()} counts appends and {@link #generation()} counts resets, which
+ * lets stateful consumers detect gaps. Not thread-safe: callers serialize access.
+ */
+public final class FeatureWindow {
+
+    private static final int STEPS = ModelConfig.TIME_STEPS;
+    private static final int FEATURES = FeatureEngine.FEATURES;
+
+    private final float[] rows = new float[STEPS * FEATURES];
+    private int head = 0;
+    private int count = 0;
+    private double lastConsumption = Double.NaN;
+
+    private long sequence = 0;
+    private long generation = 0;
+
+    /**
+     * Immutable copy of a full window, taken right after a reading was appended, so the
+     * expensive inference can run later on another thread without the window moving.
+     *
+     * @param window feature-major, see {@link #copyWindow}
+     * @param latest      the row just appended
+     * @param consumption raw consumption of that row (Lag1h of the row that would follow)
+     */
+    public record Snapshot(float[] window, float[] latest, long sequence, long generation, double consumption) {}
+
+    public void append(double temperature, double occupancy, String lightingUsage, double consumption, int hour) {
+        double lag = Double.isNaN(lastConsumption) ? consumption : lastConsumption;
+        int slot = (head + count) % STEPS;
+        FeatureEngine.engineer(temperature, occupancy, lightingUsage, lag, hour, rows, slot * FEATURES);
+        if (count < STEPS) {
+            count++;
+        } else {
+            head = (head + 1) % STEPS;
+        }
+        lastConsumption = consumption;
+        sequence++;
+    }
+
+    /** Seeds Lag1h for the next append, e.g. from the record preceding a warm-up range. */
+    public void primeLag(double consumption) {
+        lastConsumption = consumption;
+    }
+
+    public void reset() {
+        head = 0;
+        count = 0;
+        lastConsumption = Double.NaN;
+        generation++;
+    }
+
+    public boolean isFull() {
+        return count == STEPS;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    /** Snapshot of the current state, or null while the window is not full. */
+    public Snapshot snapshot() {
+        if (!isFull()) {
+            return null;
+        }
+        return new Snapshot(copyWindow(new float[STEPS * FEATURES]), copyLatest(new float[FEATURES]), sequence, generation,
+                lastConsumption);
+    }
+
+    /** Copies the window feature-major ({@code [f * TIME_STEPS + t]}), oldest step first. */
+    public float[] copyWindow(float[] dst) {
+        for (int t = 0; t < STEPS; t++) {
+            int row = ((head + t) % STEPS) * FEATURES;
+            for (int f = 0; f < FEATURES; f++) {
+                dst[f * STEPS + t] = rows[row + f];
+            }
+        }
+        return dst;
+    }
+
+    /** Copies the most recent row. */
+    public float[] copyLatest(float[] dst) {
+        System.arraycopy(rows, ((head + count - 1) % STEPS) * FEATURES, dst, 0, FEATURES);
+        return dst;
+    }
+}
@@ -0,0 +1,297 @@
+package com.energy.energy_server.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches {@link Hyperparameters} by training candidates concurrently on the CSV dataset,
+ * with the same chronological train/validation split as {@link Train}.
+ *
+ * <ul>
+ *   <li>{@code grid}: every combination of the discrete space below;</li>
+ *   <li>{@code random}: {@code trials} samples (log-uniform learning rate and L2);</li>
+ *   <li>{@code halving}: successive halving of {@code trials} random samples: every rung
+ *       trains the survivors further and keeps the best 1/{@code ETA}.</li>
+ * </ul>
+ * Grid and random runs use the median stopping rule to prune trials early. At most
+ * {@code parallelism} trials train at once (set {@code OMP_NUM_THREADS} to cores / parallelism
+ * to avoid oversubscription). Completed trials are then scored for validation MAE (kWh) and
+ * single-window inference latency, measured one trial at a time, and the accuracy/latency
+ * Pareto front is reported and written to {@code hpsearch.output}.
+ *
+ * <p>Usage: HyperparameterSearch [grid|random|halving] [trials] [parallelism] [maxEpochs]
+ */
+public class HyperparameterSearch {
+
+    private static final int[] UNITS = {16, 32, 64};
+    private static final double[] LEARNING_RATES = {0.003, 0.01, 0.03};
+    private static final double[] L2 = {1e-5, 1e-4, 1e-3};
+    private static final double[] RETAIN = {1.0, 0.8, 0.6};
+
+    // Median stopping rule: from PRUNE_WARMUP on, every PRUNE_EVERY epochs
+    private static final int PRUNE_WARMUP = 5;
+    private static final int PRUNE_EVERY = 5;
+    private static final int PRUNE_MIN_PEERS = 3;
+    // Successive halving keeps 1/ETA of the trials per rung
+    private static final int ETA = 3;
+    private static final int LATENCY_WARMUP = 50;
+    private static final int LATENCY_CALLS = 500;
+
+    /** {@code maeKwh} and {@code latencyMicros} are null for trials that did not complete. */
+    public record Result(int trial, Hyperparameters params, int epochs, String status,
+                         double validationLoss, Double maeKwh, Double latencyMicros, boolean pareto) {}
+
+    /** Data shared read-only by all trials. */
+    private record Data(FeatureEngine.Series series, int trainSamples, int numSamples,
+                        NormalizerStandardize normalizer, int batchSize) {}
+
+    public static void main(String[] args) throws Exception {
+        String strategy = args.length > 0 ? args[0] : "random";
+        int trials = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int maxEpochs = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+        File output = new File(System.getProperty("hpsearch.output",
+                ModelConfig.DATA_FOLDER + File.separator + "hpsearch" + File.separator + "results.json"));
+
+        // 1. DATA (normalizer fitted once on the training split, as in Train)
+        FeatureEngine.Series series = FeatureEngine.loadCsv(new File(ModelConfig.CSV_PATH));
+        int numSamples = series.sampleCount();
+        int trainSamples = (int) (numSamples * ModelConfig.TRAIN_RATIO);
+        NormalizerStandardize normalizer = new NormalizerStandardize();
+        normalizer.fitLabel(true);
+        normalizer.fit(new SeriesDataSetIterator(series, 0, trainSamples, ModelConfig.BATCH_SIZE, null));
+        Data data = new Data(series, trainSamples, numSamples, normalizer, ModelConfig.BATCH_SIZE);
+
+        // 2. SEARCH
+        List<Hyperparameters> space = switch (strategy) {
+            case "grid" -> grid();
+            case "random", "halving" -> sample(trials, new Random(ModelConfig.SEED));
+            default -> throw new IllegalArgumentException("Unknown strategy: " + strategy + " (grid|random|halving)");
+        };
+        List<Trial> all = new ArrayList<>();
+        for (int i = 0; i < space.size(); i++) {
+            all.add(new Trial(i, space.get(i), data));
+        }
+        System.out.printf("Search: %s | %d candidates | Parallelism: %d | Max epochs: %d%n",
+                strategy, all.size(), parallelism, maxEpochs);
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            if (strategy.equals("halving")) {
+                successiveHalving(all, maxEpochs, pool);
+            } else {
+                MedianStoppingRule rule = new MedianStoppingRule();
+                runAll(pool, all.stream().<Callable<Void>>map(t -> () -> {
+                    t.trainTo(maxEpochs, rule);
+                    return null;
+                }).toList());
+            }
+            List<Trial> completed = all.stream().filter(t -> t.status.equals("completed")).toList();
+            runAll(pool, completed.stream().<Callable<Void>>map(t -> () -> {
+                t.mae = t.validationMae();
+                return null;
+            }).toList());
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.printf("Training done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+
+        // 3. LATENCY (sequential, so trials do not disturb each other)
+        INDArray window = series.windows(trainSamples, 1);
+        normalizer.transform(window);
+        for (Trial t : all) {
+            if (t.status.equals("completed")) t.latencyMicros = t.latencyMicros(window);
+        }
+
+        // 4. REPORT
+        List<Result> results = report(all);
+        System.out.println("\n--- Trials (completed by MAE, then pruned) ---");
+        for (Result r : results) {
+            System.out.printf("%s #%-3d %-48s | Epochs: %3d | %-12s | Val loss: %.5f | MAE: %6s kWh | Latency: %7s us%n",
+                    r.pareto() ? "*" : " ", r.trial(), r.params(), r.epochs(), r.status(), r.validationLoss(),
+                    r.maeKwh() != null ? String.format("%.3f", r.maeKwh()) : "-",
+                    r.latencyMicros() != null ? String.format("%.1f", r.latencyMicros()) : "-");
+        }
+        System.out.println("(* = Pareto-optimal for MAE vs. inference latency)");
+
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        System.out.println("Results written to " + output.getPath());
+    }
+
+    private static void successiveHalving(List<Trial> all, int maxEpochs, ExecutorService pool) throws Exception {
+        int rungs = 1 + (int) Math.floor(Math.log(all.size()) / Math.log(ETA));
+        List<Trial> alive = new ArrayList<>(all);
+        for (int rung = 0; rung < rungs; rung++) {
+            int budget = Math.max(1, (int) (maxEpochs / Math.pow(ETA, rungs - 1 - rung)));
+            runAll(pool, alive.stream().<Callable<Void>>map(t -> () -> {
+                t.trainTo(budget, null);
+                return null;
+            }).toList());
+            alive.sort(Comparator.comparingDouble(t -> t.loss));
+            System.out.printf("Rung %d | Budget: %d epochs | Best loss: %.5f (%s)%n",
+                    rung, budget, alive.get(0).loss, alive.get(0).params);
+            if (rung < rungs - 1) {
+                int keep = Math.max(1, (int) Math.ceil(alive.size() / (double) ETA));
+                for (Trial t : alive.subList(keep, alive.size())) {
+                    t.status = "halved@" + t.epochs;
+                }
+                alive = new ArrayList<>(alive.subList(0, keep));
+            }
+        }
+    }
+
+    private static void runAll(ExecutorService pool, List<Callable<Void>> tasks) throws Exception {
+        for (Future<Void> f : pool.invokeAll(tasks)) {
+            f.get();
+        }
+    }
+
+    private static List<Result> report(List<Trial> all) {
+        List<Trial> completed = new ArrayList<>(all.stream().filter(t -> t.status.equals("completed")).toList());
+        completed.sort(Comparator.comparingDouble((Trial t) -> t.mae).thenComparingDouble(t -> t.latencyMicros));
+        // Sorted by MAE: a trial is on the front iff it is faster than every more accurate trial
+        double fastest = Double.MAX_VALUE;
+        List<Result> results = new ArrayList<>();
+        for (Trial t : completed) {
+            boolean pareto = t.latencyMicros < fastest;
+            fastest = Math.min(fastest, t.latencyMicros);
+            results.add(t.result(pareto));
+        }
+        all.stream().filter(t -> !t.status.equals("completed"))
+                .sorted(Comparator.comparingDouble(t -> t.loss))
+                .forEach(t -> results.add(t.result(false)));
+        return results;
+    }
+
+    private static List<Hyperparameters> grid() {
+        List<Hyperparameters> space = new ArrayList<>();
+        for (int units : UNITS)
+            for (double lr : LEARNING_RATES)
+                for (double l2 : L2)
+                    for (double retain : RETAIN)
+                        space.add(new Hyperparameters(units, lr, l2, retain));
+        return space;
+    }
+
+    private static List<Hyperparameters> sample(int trials, Random random) {
+        List<Hyperparameters> space = new ArrayList<>();
+        for (int i = 0; i < trials; i++) {
+            space.add(new Hyperparameters(
+                    UNITS[random.nextInt(UNITS.length)],
+                    Math.pow(10, -3 + random.nextDouble() * 2),   // 1e-3 .. 1e-1
+                    Math.pow(10, -6 + random.nextDouble() * 4),   // 1e-6 .. 1e-2
+                    0.5 + random.nextDouble() * 0.5));
+        }
+        return space;
+    }
+
+    /** Stops a trial whose validation loss is worse than the median of its peers at the same epoch. */
+    private static final class MedianStoppingRule {
+        private final Map<Integer, List<Double>> lossesByEpoch = new HashMap<>();
+
+        synchronized boolean shouldStop(int epoch, double loss) {
+            List<Double> peers = lossesByEpoch.computeIfAbsent(epoch, e -> new ArrayList<>());
+            boolean stop = false;
+            if (epoch >= PRUNE_WARMUP && epoch % PRUNE_EVERY == 0 && peers.size() >= PRUNE_MIN_PEERS) {
+                double[] sorted = peers.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+                stop = loss > sorted[sorted.length / 2];
+            }
+            peers.add(loss);
+            return stop;
+        }
+    }
+
+    /** One candidate; trained by one thread at a time. */
+    private static final class Trial {
+        final int id;
+        final Hyperparameters params;
+        final Data data;
+        final MultiLayerNetwork model;
+        final SeriesDataSetIterator train;
+        final SeriesDataSetIterator validation;
+
+        int epochs;
+        double loss = Double.MAX_VALUE;
+        String status = "completed";
+        double mae = Double.NaN;
+        double latencyMicros = Double.NaN;
+
+        Trial(int id, Hyperparameters params, Data data) {
+            this.id = id;
+            this.params = params;
+            this.data = data;
+            this.model = new MultiLayerNetwork(LstmArchitecture.build(params));
+            this.model.init();
+            this.train = new SeriesDataSetIterator(data.series(), 0, data.trainSamples(), data.batchSize(), new Random(ModelConfig.SEED + id));
+            this.validation = new SeriesDataSetIterator(data.series(), data.trainSamples(), data.numSamples(), 1024, null);
+            this.train.setPreProcessor(data.normalizer());
+            this.validation.setPreProcessor(data.normalizer());
+        }
+
+        void trainTo(int targetEpochs, MedianStoppingRule rule) {
+            while (epochs < targetEpochs) {
+                train.reset();
+                model.fit(train);
+                epochs++;
+                loss = Train.validationLoss(model, validation);
+                if (rule != null && rule.shouldStop(epochs, loss)) {
+                    status = "pruned@" + epochs;
+                    return;
+                }
+            }
+        }
+
+        /** MAE in kWh, scored exactly as served (non-negative predictions). */
+        double validationMae() {
+            ErrorStats errors = new ErrorStats();
+            for (int start = data.trainSamples(); start < data.numSamples(); start += 1024) {
+                int count = Math.min(1024, data.numSamples() - start);
+                DataSet batch = SeriesDataSetIterator.batch(data.series(), start, count);
+                double[] predictions = ModelBundle.score(model, data.normalizer(), batch.getFeatures());
+                for (int i = 0; i < count; i++) {
+                    errors.add(predictions[i], data.series().target(start + i));
+                }
+            }
+            return errors.mae();
+        }
+
+        /** Median wall-clock time of a single-window forward pass. */
+        double latencyMicros(INDArray window) {
+            for (int i = 0; i < LATENCY_WARMUP; i++) {
+                model.output(window);
+            }
+            long[] nanos = new long[LATENCY_CALLS];
+            for (int i = 0; i < LATENCY_CALLS; i++) {
+                long t0 = System.nanoTime();
+                model.output(window);
+                nanos[i] = System.nanoTime() - t0;
+            }
+            Arrays.sort(nanos);
+            return nanos[LATENCY_CALLS / 2] / 1e3;
+        }
+
+        Result result(boolean pareto) {
+            return new Result(id, params, epochs, status, loss,
+                    Double.isNaN(mae) ? null : mae, Double.isNaN(latencyMicros) ? null : latencyMicros, pareto);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.energy.energy_server.ai;
+
+/**
+ * Tunable settings of {@link LstmArchitecture}. Window length and feature layout are not
+ * part of it: serving ({@link FeatureWindow}, {@link JavaLstmEngine}) is built for
+ * {@code TIME_STEPS} x {@code INPUT_FEATURES} windows.
+ *
+ * @param dropOut DL4J semantics: probability of retaining an activation (1.0 = no dropout)
+ */
+public record Hyperparameters(int lstmUnits, double learningRate, double l2, double dropOut) {
+
+    public static Hyperparameters defaults() {
+        return new Hyperparameters(ModelConfig.LSTM_UNITS, ModelConfig.LEARNING_RATE, ModelConfig.L2_REG, ModelConfig.DROP_OUT);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("units=%d lr=%.4g l2=%.1e retain=%.2f", lstmUnits, learningRate, l2, dropOut);
+    }
+}
@@ -0,0 +1,130 @@
+package com.energy.energy_server.ai;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Micro-batcher for LSTM inference.
+ * Callers submit one raw feature window ({@code INPUT_FEATURES x TIME_STEPS}, feature-major)
+ * and get a future; a single dispatcher thread waits up to {@code maxWait} after the first
+ * pending request, stacks up to {@code maxBatch} windows into one {@code [N, 6, 12]} tensor
+ * and runs a single forward pass for all of them.
+ *
+ * <p>{@code MultiLayerNetwork.output} is not thread-safe: the dispatcher runs one pass at a time,
+ * and a {@code forward} function over a network shared with other callers must lock it itself.
+ */
+public final class InferenceBatcher implements AutoCloseable {
+
+    public static final int WINDOW_LENGTH = ModelConfig.INPUT_FEATURES * ModelConfig.TIME_STEPS;
+
+    private final Function<INDArray, double[]> forward;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    private record Request(float[] window, CompletableFuture<Double> result) {}
+
+    /**
+     * @param forward      maps a raw {@code [N, 6, 12]} batch to N predictions in kWh
+     * @param maxBatch     upper bound on windows per forward pass
+     * @param maxWaitMicros how long the first request of a batch may wait for company
+     */
+    public InferenceBatcher(Function<INDArray, double[]> forward, int maxBatch, long maxWaitMicros) {
+        this.forward = forward;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxWaitMicros));
+        // Platform thread: ND4J native calls would pin a virtual thread's carrier anyway
+        this.dispatcher = Thread.ofPlatform().daemon().name("nexus-inference-batcher").start(this::dispatchLoop);
+    }
+
+    public CompletableFuture<Double> submit(float[] window) {
+        if (window.length != WINDOW_LENGTH) {
+            throw new IllegalArgumentException("Expected " + WINDOW_LENGTH + " values, got " + window.length);
+        }
+        CompletableFuture<Double> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException("Inference batcher is closed"));
+            return result;
+        }
+        queue.add(new Request(window, result));
+        return result;
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long b = batches.sum();
+        return b == 0 ? 0.0 : (double) requests.sum() / b;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        List<Request> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(r -> r.result().completeExceptionally(new IllegalStateException("Inference batcher is closed")));
+    }
+
+    private void dispatchLoop() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                execute(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(r -> r.result().completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void execute(List<Request> batch) {
+        int n = batch.size();
+        float[] flat = new float[n * WINDOW_LENGTH];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(batch.get(i).window(), 0, flat, i * WINDOW_LENGTH, WINDOW_LENGTH);
+        }
+        try {
+            INDArray input = Nd4j.create(flat, new long[]{n, ModelConfig.INPUT_FEATURES, ModelConfig.TIME_STEPS}, 'c');
+            double[] predictions = forward.apply(input);
+            for (int i = 0; i < n; i++) {
+                batch.get(i).result().complete(predictions[i]);
+            }
+        } catch (Exception e) {
+            batch.forEach(r -> r.result().completeExceptionally(e));
+        }
+        batches.increment();
+        requests.add(n);
+    }
+}
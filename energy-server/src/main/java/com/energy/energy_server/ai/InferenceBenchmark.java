@@ -0,0 +1,117 @@
+package com.energy.energy_server.ai;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+/**
+ * Throughput vs. latency of per-request inference against the micro-batcher.
+ * N closed-loop clients each issue a fixed number of single-window predictions.
+ *
+ * <p>Usage: InferenceBenchmark [clients] [requestsPerClient]
+ */
+public class InferenceBenchmark {
+
+    // {maxBatch, maxWaitMicros}; maxBatch 0 = unbatched baseline
+    private static final long[][] CONFIGS = {
+            {0, 0}, {8, 500}, {32, 1000}, {32, 2000}, {64, 5000}
+    };
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int perClient = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        File modelFile = new File(ModelConfig.MODEL_EXPORT_PATH);
+        File normFile = new File(ModelConfig.NORMALIZER_EXPORT_PATH);
+        if (!modelFile.exists() || !normFile.exists()) {
+            System.err.println("Error: Trained model or normalizer not found. Run Train.java first.");
+            return;
+        }
+        MultiLayerNetwork model = ModelSerializer.restoreMultiLayerNetwork(modelFile);
+        NormalizerStandardize normalizer = NormalizerSerializer.getDefault().restore(normFile);
+
+        float[][] windows = buildWindows(FeatureEngine.loadCsv(new File(ModelConfig.CSV_PATH)));
+        Function<INDArray, double[]> forward = input -> {
+            normalizer.transform(input);
+            INDArray out = model.output(input);
+            double[] p = new double[(int) out.size(0)];
+            for (int i = 0; i < p.length; i++) p[i] = out.getDouble(i, 0, ModelConfig.TIME_STEPS - 1);
+            return p;
+        };
+
+        // Warm-up: JIT + native workspaces
+        for (int i = 0; i < 200; i++) {
+            forward.apply(Nd4j.create(windows[i % windows.length], new long[]{1, ModelConfig.INPUT_FEATURES, ModelConfig.TIME_STEPS}, 'c'));
+        }
+
+        System.out.printf("%n%d clients x %d requests%n", clients, perClient);
+        System.out.printf("%-22s %12s %10s %10s %10s %10s%n", "Mode", "Req/s", "p50 ms", "p99 ms", "max ms", "Avg batch");
+        for (long[] config : CONFIGS) {
+            run(config, forward, windows, clients, perClient);
+        }
+    }
+
+    private static void run(long[] config, Function<INDArray, double[]> forward, float[][] windows,
+                            int clients, int perClient) throws InterruptedException {
+        int maxBatch = (int) config[0];
+        InferenceBatcher batcher = maxBatch > 0 ? new InferenceBatcher(forward, maxBatch, config[1]) : null;
+        Object lock = new Object();
+        long[] latencies = new long[clients * perClient];
+        CountDownLatch done = new CountDownLatch(clients);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread.ofPlatform().start(() -> {
+                try {
+                    for (int i = 0; i < perClient; i++) {
+                        float[] window = windows[(client * perClient + i) % windows.length];
+                        long t0 = System.nanoTime();
+                        if (batcher != null) {
+                            batcher.submit(window).join();
+                        } else {
+                            INDArray input = Nd4j.create(window, new long[]{1, ModelConfig.INPUT_FEATURES, ModelConfig.TIME_STEPS}, 'c');
+                            synchronized (lock) {
+                                forward.apply(input);
+                            }
+                        }
+                        latencies[client * perClient + i] = System.nanoTime() - t0;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        String mode = batcher == null ? "unbatched" : "batch " + maxBatch + " / " + config[1] + "us";
+        System.out.printf("%-22s %12.0f %10.2f %10.2f %10.2f %10.2f%n",
+                mode,
+                latencies.length / seconds,
+                latencies[latencies.length / 2] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6,
+                latencies[latencies.length - 1] / 1e6,
+                batcher == null ? 1.0 : batcher.getAverageBatchSize());
+        if (batcher != null) batcher.close();
+    }
+
+    private static float[][] buildWindows(FeatureEngine.Series series) {
+        int count = Math.max(1, series.sampleCount());
+        float[] flat = series.windows(0, count).data().asFloat();
+        float[][] windows = new float[count][];
+        for (int i = 0; i < count; i++) {
+            windows[i] = Arrays.copyOfRange(flat, i * InferenceBatcher.WINDOW_LENGTH, (i + 1) * InferenceBatcher.WINDOW_LENGTH);
+        }
+        return windows;
+    }
+}
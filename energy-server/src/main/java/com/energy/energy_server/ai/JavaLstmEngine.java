@@ -0,0 +1,172 @@
+package com.energy.energy_server.ai;
+
+import org.deeplearning4j.nn.conf.layers.Layer;
+import org.deeplearning4j.nn.conf.layers.LSTM;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.deeplearning4j.nn.params.LSTMParamInitializer;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.activations.impl.ActivationSigmoid;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Plain-Java forward pass for the {@link LstmArchitecture} network (LSTM + RnnOutputLayer).
+ * Weights and normalizer statistics are copied out of the ND4J objects once; each
+ * prediction then runs on preallocated {@code float[]} buffers with no JNI calls and no
+ * allocation, which for a 6-input / 32-unit model is far cheaper than ND4J dispatch.
+ *
+ * <p>Gate layout follows DL4J's LSTM: the 4 * units pre-activation columns are
+ * [block input (tanh) | forget | output | input gate (sigmoid)].
+ * Weights are stored transposed so every dot product walks contiguous memory.
+ *
+ * <p>Not thread-safe: one instance owns one set of scratch buffers.
+ */
+public final class JavaLstmEngine {
+
+    private final int inputs;
+    private final int units;
+    private final int steps;
+
+    // Transposed: wInT[g * inputs + i], wRecT[g * units + j], g in [0, 4 * units)
+    private final float[] wInT;
+    private final float[] wRecT;
+    private final float[] bias;
+    private final float[] wOut;
+    private final float bOut;
+
+    private final float[] featureMean;
+    private final float[] featureStd;
+    private final double labelMean;
+    private final double labelStd;
+
+    // Scratch
+    private final float[] x;
+    private final float[] h;
+    private final float[] c;
+    private final float[] gates;
+
+    public JavaLstmEngine(MultiLayerNetwork model, NormalizerStandardize normalizer) {
+        if (model.getnLayers() != 2) {
+            throw new IllegalArgumentException("Java backend supports only LSTM + RnnOutputLayer networks");
+        }
+        Layer lstmConf = model.getLayerWiseConfigurations().getConf(0).getLayer();
+        Layer outConf = model.getLayerWiseConfigurations().getConf(1).getLayer();
+        if (!(lstmConf instanceof LSTM lstm) || !(outConf instanceof RnnOutputLayer out)) {
+            throw new IllegalArgumentException("Java backend supports only LSTM + RnnOutputLayer networks");
+        }
+        if (!(lstm.getActivationFn() instanceof ActivationTanH)
+                || !(lstm.getGateActivationFn() instanceof ActivationSigmoid)
+                || !(out.getActivationFn() instanceof ActivationIdentity)) {
+            throw new IllegalArgumentException("Java backend supports tanh/sigmoid LSTM with identity output only");
+        }
+
+        this.inputs = (int) lstm.getNIn();
+        this.units = (int) lstm.getNOut();
+        this.steps = ModelConfig.TIME_STEPS;
+        if (out.getNOut() != 1) {
+            throw new IllegalArgumentException("Java backend supports a single output, got " + out.getNOut());
+        }
+
+        INDArray w = model.getLayer(0).getParam(LSTMParamInitializer.INPUT_WEIGHT_KEY);      // [inputs, 4u]
+        INDArray rw = model.getLayer(0).getParam(LSTMParamInitializer.RECURRENT_WEIGHT_KEY); // [units, 4u]
+        INDArray b = model.getLayer(0).getParam(LSTMParamInitializer.BIAS_KEY);              // [1, 4u]
+        INDArray ow = model.getLayer(1).getParam(DefaultParamInitializer.WEIGHT_KEY);        // [units, 1]
+        INDArray ob = model.getLayer(1).getParam(DefaultParamInitializer.BIAS_KEY);          // [1, 1]
+
+        int gateCount = 4 * units;
+        this.wInT = new float[gateCount * inputs];
+        this.wRecT = new float[gateCount * units];
+        this.bias = new float[gateCount];
+        for (int g = 0; g < gateCount; g++) {
+            for (int i = 0; i < inputs; i++) wInT[g * inputs + i] = w.getFloat(i, g);
+            for (int j = 0; j < units; j++) wRecT[g * units + j] = rw.getFloat(j, g);
+            bias[g] = b.getFloat(0, g);
+        }
+        this.wOut = new float[units];
+        for (int j = 0; j < units; j++) wOut[j] = ow.getFloat(j, 0);
+        this.bOut = ob.getFloat(0, 0);
+
+        this.featureMean = new float[inputs];
+        this.featureStd = new float[inputs];
+        for (int i = 0; i < inputs; i++) {
+            featureMean[i] = normalizer.getMean().getFloat(i);
+            featureStd[i] = normalizer.getStd().getFloat(i);
+        }
+        this.labelMean = normalizer.getLabelMean().getDouble(0);
+        this.labelStd = normalizer.getLabelStd().getDouble(0);
+
+        this.x = new float[inputs];
+        this.h = new float[units];
+        this.c = new float[units];
+        this.gates = new float[gateCount];
+    }
+
+    public static JavaLstmEngine load(File modelFile, File normalizerFile) throws IOException {
+        try {
+            return new JavaLstmEngine(ModelSerializer.restoreMultiLayerNetwork(modelFile),
+                    NormalizerSerializer.getDefault().restore(normalizerFile));
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cannot load model assets", e);
+        }
+    }
+
+    /**
+     * Predicts from a raw window laid out feature-major ({@code [f * TIME_STEPS + t]}),
+     * returning kWh clamped at zero, like the ND4J path.
+     */
+    public double predict(float[] window) {
+        Arrays.fill(h, 0f);
+        Arrays.fill(c, 0f);
+        for (int t = 0; t < steps; t++) {
+            for (int i = 0; i < inputs; i++) {
+                x[i] = (window[i * steps + t] - featureMean[i]) / featureStd[i];
+            }
+            step();
+        }
+        float out = bOut;
+        for (int j = 0; j < units; j++) {
+            out += wOut[j] * h[j];
+        }
+        return Math.max(0.0, (out * labelStd) + labelMean);
+    }
+
+    private void step() {
+        int gateCount = 4 * units;
+        for (int g = 0; g < gateCount; g++) {
+            float sum = bias[g];
+            int wi = g * inputs;
+            for (int i = 0; i < inputs; i++) {
+                sum += wInT[wi + i] * x[i];
+            }
+            int wr = g * units;
+            for (int j = 0; j < units; j++) {
+                sum += wRecT[wr + j] * h[j];
+            }
+            gates[g] = sum;
+        }
+        // All gates read the previous h above, so h/c can be updated in place now
+        for (int j = 0; j < units; j++) {
+            float blockInput = (float) Math.tanh(gates[j]);
+            float forget = sigmoid(gates[units + j]);
+            float output = sigmoid(gates[2 * units + j]);
+            float input = sigmoid(gates[3 * units + j]);
+            c[j] = forget * c[j] + input * blockInput;
+            h[j] = output * (float) Math.tanh(c[j]);
+        }
+    }
+
+    private static float sigmoid(float v) {
+        return (float) (1.0 / (1.0 + Math.exp(-v)));
+    }
+}
@@ -11,21 +11,25 @@ import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 public class LstmArchitecture {
         public static MultiLayerConfiguration build() {
+                return build(Hyperparameters.defaults());
+        }
+
+        public static MultiLayerConfiguration build(Hyperparameters hp) {
                 return new NeuralNetConfiguration.Builder()
                         .seed(ModelConfig.SEED)
-                        .updater(new Adam(ModelConfig.LEARNING_RATE))
-                        .l2(ModelConfig.L2_REG)
+                        .updater(new Adam(hp.learningRate()))
+                        .l2(hp.l2())
                         .list()
                         .layer(0, new LSTM.Builder()
                                 .nIn(ModelConfig.INPUT_FEATURES) 
-                                .nOut(ModelConfig.LSTM_UNITS)    
+                                .nOut(hp.lstmUnits())    
                                 .activation(Activation.TANH)
                                 .weightInit(WeightInit.XAVIER)
-                                .dropOut(0.6) 
+                                .dropOut(hp.dropOut()) 
                                 .build())
                         .layer(1, new RnnOutputLayer.Builder(LossFunctions.LossFunction.MSE)
                                 .activation(Activation.IDENTITY)
-                                .nIn(ModelConfig.LSTM_UNITS)
+                                .nIn(hp.lstmUnits())
                                 .nOut(ModelConfig.OUTPUTS)
                                 .build())
                         .build();
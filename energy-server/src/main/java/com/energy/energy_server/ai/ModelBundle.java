@@ -0,0 +1,246 @@
+package com.energy.energy_server.ai;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One loaded model version together with the inference machinery built around it
+ * (micro-batcher, streaming predictor or Java engine, depending on {@link Settings}).
+ * Bundles are immutable once built, so a new version can be swapped in atomically by
+ * replacing the reference while in-flight calls finish on the old one.
+ */
+public final class ModelBundle implements AutoCloseable {
+
+    /**
+     * @param backend   "nd4j" or "java"
+     * @param streaming stateful rnnTimeStep inference (nd4j backend only)
+     * @param timeoutMs how long a caller waits for its micro-batched forward pass
+     */
+    public record Settings(String backend, boolean streaming, int reanchorSteps,
+                           int batchMaxSize, long batchMaxWaitMicros, long timeoutMs) {
+
+        boolean javaBackend() {
+            return "java".equalsIgnoreCase(backend);
+        }
+    }
+
+    /** Holdout MAE of the deployed baseline model, used when a version records none. */
+    public static final double BASELINE_MAE_KWH = 3.91;
+
+    /** A reading is anomalous when it deviates from the prediction by more than this many MAEs (approx. 99%). */
+    public static final double ANOMALY_MAE_FACTOR = 2.5;
+
+    private final String version;
+    private final double maeKwh;
+    private final MultiLayerNetwork model;
+    private final NormalizerStandardize normalizer;
+    private final long timeoutMs;
+
+    // At most one of batcher / javaEngine; streaming only with nd4j
+    private final InferenceBatcher batcher;
+    private final JavaLstmEngine javaEngine;
+    private final StreamingPredictor streaming;
+
+    private ModelBundle(String version, MultiLayerNetwork model, NormalizerStandardize normalizer, double maeKwh,
+                        Settings settings) {
+        this.version = version;
+        this.maeKwh = maeKwh;
+        this.model = model;
+        this.normalizer = normalizer;
+        this.timeoutMs = settings.timeoutMs();
+        if (settings.javaBackend()) {
+            // A full window costs microseconds here: no batching or stateful streaming needed
+            this.javaEngine = new JavaLstmEngine(model, normalizer);
+            this.batcher = null;
+            this.streaming = null;
+        } else {
+            this.javaEngine = null;
+            this.batcher = settings.batchMaxSize() > 1
+                    ? new InferenceBatcher(this::forward, settings.batchMaxSize(), settings.batchMaxWaitMicros())
+                    : null;
+            this.streaming = settings.streaming()
+                    ? new StreamingPredictor(model.clone(), normalizer, settings.reanchorSteps())
+                    : null;
+        }
+    }
+
+    public static ModelBundle load(String version, File modelFile, File normalizerFile, double maeKwh,
+                                   Settings settings) throws IOException {
+        try {
+            return new ModelBundle(version,
+                    ModelSerializer.restoreMultiLayerNetwork(modelFile),
+                    NormalizerSerializer.getDefault().restore(normalizerFile),
+                    maeKwh,
+                    settings);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cannot load model version " + version, e);
+        }
+    }
+
+    public static ModelBundle of(String version, MultiLayerNetwork model, NormalizerStandardize normalizer, double maeKwh,
+                                 Settings settings) {
+        return new ModelBundle(version, model, normalizer, maeKwh, settings);
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /** Holdout MAE recorded for this version; the anomaly threshold scales with it. */
+    public double maeKwh() {
+        return maeKwh;
+    }
+
+    /** Absolute deviation in kWh above which a reading is flagged as anomalous. */
+    public double anomalyThresholdKwh() {
+        return maeKwh * ANOMALY_MAE_FACTOR;
+    }
+
+    /** A private copy of the network for training or parallel scoring, taken under the inference lock. */
+    public MultiLayerNetwork copyNetwork() {
+        synchronized (model) {
+            return model.clone();
+        }
+    }
+
+    public NormalizerStandardize normalizer() {
+        return normalizer;
+    }
+
+    /**
+     * Streaming mode advances the recurrent state; otherwise the snapshot's full window is scored.
+     * Readings that were never predicted leave a gap in the stream, so the streaming predictor
+     * re-anchors on the full window at the next call instead of being stepped for each of them.
+     */
+    public double predict(FeatureWindow.Snapshot features) throws Exception {
+        if (streaming != null) {
+            synchronized (streaming) {
+                return streaming.step(features);
+            }
+        }
+        return predictWindow(features.window());
+    }
+
+    /**
+     * As {@link #predict}, without blocking on the micro-batcher: batched window scoring returns
+     * its pending future, the streaming and Java paths score in place and return a completed one.
+     */
+    public CompletableFuture<Double> predictAsync(FeatureWindow.Snapshot features) {
+        if (streaming == null && batcher != null) {
+            return batcher.submit(features.window()).orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        try {
+            return CompletableFuture.completedFuture(predict(features));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Stateless prediction of one raw feature-major window, in kWh. */
+    public double predictWindow(float[] window) throws Exception {
+        if (javaEngine != null) {
+            synchronized (javaEngine) {
+                return javaEngine.predict(window);
+            }
+        }
+        if (batcher != null) {
+            return batcher.submit(window).get(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        INDArray input = Nd4j.create(window, new long[]{1, ModelConfig.INPUT_FEATURES, ModelConfig.TIME_STEPS}, 'c');
+        return forward(input)[0];
+    }
+
+    /**
+     * Stateless predictions for {@code count} raw windows stacked feature-major in {@code windows}
+     * ({@code [count, 6, 12]}), in kWh. The nd4j backend scores them in one forward pass,
+     * bypassing the micro-batcher but serialized with it on the same network lock.
+     */
+    public double[] predictWindows(float[] windows, int count) {
+        int length = ModelConfig.INPUT_FEATURES * ModelConfig.TIME_STEPS;
+        if (javaEngine != null) {
+            double[] predictions = new double[count];
+            float[] window = new float[length];
+            synchronized (javaEngine) {
+                for (int i = 0; i < count; i++) {
+                    System.arraycopy(windows, i * length, window, 0, length);
+                    predictions[i] = javaEngine.predict(window);
+                }
+            }
+            return predictions;
+        }
+        INDArray input = Nd4j.create(Arrays.copyOf(windows, count * length),
+                new long[]{count, ModelConfig.INPUT_FEATURES, ModelConfig.TIME_STEPS}, 'c');
+        return forward(input);
+    }
+
+    /** One-line description of the active inference path, for logs. */
+    public String describe() {
+        if (javaEngine != null) return "java";
+        return "nd4j" + (batcher != null ? "+batching" : "") + (streaming != null ? "+streaming" : "");
+    }
+
+    public String stats() {
+        StringBuilder sb = new StringBuilder(version).append(" [").append(describe()).append(']');
+        if (batcher != null) {
+            sb.append(String.format(" | Forward passes: %d | Avg batch size: %.2f",
+                    batcher.getBatchCount(), batcher.getAverageBatchSize()));
+        }
+        if (streaming != null) {
+            sb.append(String.format(" | Streaming steps: %d | Re-anchors: %d",
+                    streaming.getStepCount(), streaming.getAnchorCount()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    /**
+     * Every forward pass on the shared network goes through here: batcher dispatcher, unbatched
+     * calls and batched scenario/forecast scoring alike. {@code MultiLayerNetwork.output} is not
+     * thread-safe, so they all take the same lock.
+     */
+    private double[] forward(INDArray input) {
+        synchronized (model) {
+            return score(model, normalizer, input);
+        }
+    }
+
+    /**
+     * Normalizes a raw {@code [N, 6, 12]} batch in place, runs {@code model} and returns N
+     * predictions in kWh. For callers scoring on their own copy of the network, e.g. in parallel.
+     */
+    public static double[] score(MultiLayerNetwork model, NormalizerStandardize normalizer, INDArray input) {
+        int steps = ModelConfig.TIME_STEPS;
+        normalizer.transform(input);
+        INDArray output = model.output(input);
+        // Revert labels manually (output is [N, 1, 12])
+        double mean = normalizer.getLabelMean().getDouble(0);
+        double std = normalizer.getLabelStd().getDouble(0);
+        double[] predictions = new double[(int) output.size(0)];
+        for (int i = 0; i < predictions.length; i++) {
+            double normPred = output.getDouble(i, 0, steps - 1);
+            predictions[i] = Math.max(0.0, (normPred * std) + mean);
+        }
+        return predictions;
+    }
+}
@@ -16,12 +16,22 @@ public class ModelConfig {
     
     public static final double LEARNING_RATE = 0.01; 
     public static final double L2_REG = 1e-4; // weight_decay
+    public static final double DROP_OUT = 0.6; // DL4J semantics: probability of RETAINING an activation
     public static final int EPOCHS = 400;
     public static final int BATCH_SIZE = 16;
     public static final int TIME_STEPS = 12; // Window Size 12
     
     public static final double TRAIN_RATIO = 0.8; 
 
+    // Training loop: LR halves after LR_PATIENCE epochs without validation improvement,
+    // training stops after EARLY_STOP_PATIENCE
+    public static final int LR_PATIENCE = 25;
+    public static final int EARLY_STOP_PATIENCE = 60;
+    public static final int PREFETCH_BUFFER = 4;
+    // Data-parallel workers average parameters every N mini-batches
+    public static final int AVERAGING_FREQUENCY = 5;
+    public static final String CHECKPOINT_PATH = DATA_FOLDER + File.separator + "checkpoints" + File.separator + "best_model.zip";
+
 
 
 }
\ No newline at end of file
@@ -0,0 +1,287 @@
+package com.energy.energy_server.ai;
+
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Mini-batches of (window, next-hour target) samples streamed straight from {@code energy_readings},
+ * in timestamp order, over an optional {@code [from, to)} range.
+ *
+ * <p>Rows come through a forward-only MySQL streaming cursor and are engineered with
+ * {@link FeatureEngine} into a rolling buffer of {@code batchSize + TIME_STEPS} rows, so memory
+ * stays bounded whatever the table size. Lag1h of the first row is primed from the reading just
+ * before {@code from}, so a range split yields the same features as one pass over the whole table.
+ * Each {@link #reset()} re-runs the query; the iterator owns one connection until {@link #close()}.
+ *
+ * <p>Train and EvaluateModel use it with {@code -Ddata.source=db} and optional
+ * {@code -Ddata.from} / {@code -Ddata.to} (ISO local date-times). Connection settings come from
+ * the same {@code DB_URL}, {@code MYSQL_USER} and {@code MYSQL_PASSWORD} variables as the server.
+ */
+public class ReadingsDataSetIterator implements DataSetIterator, AutoCloseable {
+
+    private static final int STEPS = ModelConfig.TIME_STEPS;
+    private static final int FEATURES = FeatureEngine.FEATURES;
+    private static final String DEFAULT_DB_URL =
+            "jdbc:mysql://localhost:3307/energy_db?allowPublicKeyRetrieval=true&useSSL=false&serverTimezone=UTC";
+
+    private final Connection connection;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final int batchSize;
+    private final int sampleCount;
+
+    // Rolling buffer: rows [0, filled) are engineered, the first STEPS are carried over between batches
+    private final float[] features;
+    private final double[] consumption;
+    private int filled;
+
+    private PreparedStatement statement;
+    private ResultSet cursor;
+    private boolean exhausted;
+    private double lastConsumption;
+    private DataSetPreProcessor preProcessor;
+
+    public ReadingsDataSetIterator(Connection connection, LocalDateTime from, LocalDateTime to, int batchSize) throws SQLException {
+        this.connection = connection;
+        this.from = from;
+        this.to = to;
+        this.batchSize = Math.max(1, batchSize);
+        this.features = new float[(this.batchSize + STEPS) * FEATURES];
+        this.consumption = new double[this.batchSize + STEPS];
+        this.sampleCount = (int) Math.max(0, countRows() - STEPS);
+        reset();
+    }
+
+    /** Opens a connection from the server's environment variables. */
+    public static ReadingsDataSetIterator open(LocalDateTime from, LocalDateTime to, int batchSize) throws SQLException {
+        return new ReadingsDataSetIterator(connect(), from, to, batchSize);
+    }
+
+    /** True when the tools were asked to read from the database ({@code -Ddata.source=db}). */
+    public static boolean requested() {
+        return "db".equalsIgnoreCase(System.getProperty("data.source", "csv"));
+    }
+
+    public static LocalDateTime fromProperty() {
+        String value = System.getProperty("data.from");
+        return value == null || value.isBlank() ? null : LocalDateTime.parse(value);
+    }
+
+    public static LocalDateTime toProperty() {
+        String value = System.getProperty("data.to");
+        return value == null || value.isBlank() ? null : LocalDateTime.parse(value);
+    }
+
+    /**
+     * Timestamp splitting the readings in {@code [from, to)} at {@code ratio} of their time span,
+     * or null when the range holds no readings.
+     */
+    public static LocalDateTime splitPoint(LocalDateTime from, LocalDateTime to, double ratio) throws SQLException {
+        try (Connection c = connect();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT MIN(`timestamp`), MAX(`timestamp`) FROM energy_readings" + rangeClause(from, to))) {
+            bindRange(ps, 1, from, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                LocalDateTime first = rs.getObject(1, LocalDateTime.class);
+                LocalDateTime last = rs.getObject(2, LocalDateTime.class);
+                if (first == null || last == null) return null;
+                long spanSeconds = Duration.between(first, last).getSeconds();
+                return first.plusSeconds((long) (spanSeconds * ratio));
+            }
+        }
+    }
+
+    /** Number of (window, target) samples in the range. */
+    public int sampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return filled > STEPS;
+    }
+
+    @Override
+    public DataSet next() {
+        return next(batchSize);
+    }
+
+    /** The next {@code num} windows in timestamp order, at most {@link #batch()} per call. */
+    @Override
+    public DataSet next(int num) {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int count = Math.min(Math.max(1, num), filled - STEPS);
+        DataSet batch = SeriesDataSetIterator.batch(new FeatureEngine.Series(features, consumption, filled), 0, count);
+
+        // Keep the rows after the returned windows' starts: they open the windows of the next batch
+        int kept = filled - count;
+        System.arraycopy(features, count * FEATURES, features, 0, kept * FEATURES);
+        System.arraycopy(consumption, count, consumption, 0, kept);
+        filled = kept;
+
+        if (preProcessor != null) {
+            preProcessor.preProcess(batch);
+        }
+        return batch;
+    }
+
+    @Override
+    public void reset() {
+        try {
+            closeCursor();
+            lastConsumption = previousConsumption();
+            statement = connection.prepareStatement(
+                    "SELECT `timestamp`, temperature, occupancy, lighting_usage, energy_consumption FROM energy_readings"
+                            + rangeClause(from, to) + " ORDER BY `timestamp`, id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams rows one by one instead of buffering the whole result
+            statement.setFetchSize(Integer.MIN_VALUE);
+            bindRange(statement, 1, from, to);
+            cursor = statement.executeQuery();
+            exhausted = false;
+            filled = 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot query energy_readings", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            closeCursor();
+            connection.close();
+        } catch (SQLException e) {
+            // Nothing left to release
+        }
+    }
+
+    private void fill() {
+        if (exhausted) return;
+        try {
+            while (filled < consumption.length && cursor.next()) {
+                double value = cursor.getDouble("energy_consumption");
+                double lag = Double.isNaN(lastConsumption) ? value : lastConsumption;
+                LocalDateTime timestamp = cursor.getObject("timestamp", LocalDateTime.class);
+                FeatureEngine.engineer(
+                        cursor.getDouble("temperature"),
+                        cursor.getDouble("occupancy"),
+                        cursor.getString("lighting_usage"),
+                        lag,
+                        timestamp != null ? timestamp.getHour() : 0,
+                        features, filled * FEATURES);
+                consumption[filled++] = value;
+                lastConsumption = value;
+            }
+            if (filled < consumption.length) {
+                exhausted = true;
+                closeCursor();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read energy_readings", e);
+        }
+    }
+
+    private long countRows() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM energy_readings" + rangeClause(from, to))) {
+            bindRange(ps, 1, from, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /** Consumption of the reading just before the range (Lag1h of its first row), or NaN. */
+    private double previousConsumption() throws SQLException {
+        if (from == null) return Double.NaN;
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT energy_consumption FROM energy_readings WHERE `timestamp` < ? ORDER BY `timestamp` DESC, id DESC LIMIT 1")) {
+            ps.setObject(1, from);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getDouble(1) : Double.NaN;
+            }
+        }
+    }
+
+    private void closeCursor() throws SQLException {
+        if (cursor != null) {
+            cursor.close();
+            cursor = null;
+        }
+        if (statement != null) {
+            statement.close();
+            statement = null;
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        String url = System.getenv().getOrDefault("DB_URL", DEFAULT_DB_URL);
+        return DriverManager.getConnection(url, System.getenv("MYSQL_USER"), System.getenv("MYSQL_PASSWORD"));
+    }
+
+    private static String rangeClause(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) return "";
+        if (to == null) return " WHERE `timestamp` >= ?";
+        if (from == null) return " WHERE `timestamp` < ?";
+        return " WHERE `timestamp` >= ? AND `timestamp` < ?";
+    }
+
+    private static void bindRange(PreparedStatement ps, int index, LocalDateTime from, LocalDateTime to) throws SQLException {
+        if (from != null) ps.setObject(index++, from);
+        if (to != null) ps.setObject(index, to);
+    }
+
+    @Override
+    public int inputColumns() {
+        return FEATURES;
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return ModelConfig.OUTPUTS;
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+}
@@ -0,0 +1,182 @@
+package com.energy.energy_server.ai;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Mini-batches of (window, next-hour target) samples over a range of a {@link FeatureEngine.Series}.
+ * Each batch is a {@code [batch, 6, 12]} feature tensor with a {@code [batch, 1, 12]} label
+ * tensor whose only unmasked step is the last one, as the model is trained on.
+ *
+ * <p>Windows are built per batch, so only one batch is materialized at a time. With
+ * {@code shuffle}, the order of the batches (not their content, which stays chronological)
+ * changes on every {@link #reset()}. {@link #next(int)} may take part of a batch; the next call
+ * continues where it stopped.
+ */
+public class SeriesDataSetIterator implements DataSetIterator {
+
+    private static final int STEPS = ModelConfig.TIME_STEPS;
+
+    private final FeatureEngine.Series series;
+    private final int fromSample;
+    private final int toSample;
+    private final int batchSize;
+    private final Random shuffle;
+
+    private final int[] batchOrder;
+    private int cursor;
+    // Samples of batchOrder[cursor] already returned by next(int)
+    private int offset;
+    private DataSetPreProcessor preProcessor;
+
+    /**
+     * @param fromSample first window start (inclusive)
+     * @param toSample   last window start (exclusive), at most {@code series.sampleCount()}
+     * @param shuffle    null keeps chronological batch order
+     */
+    public SeriesDataSetIterator(FeatureEngine.Series series, int fromSample, int toSample, int batchSize, Random shuffle) {
+        if (fromSample < 0 || toSample > series.sampleCount() || fromSample > toSample) {
+            throw new IllegalArgumentException("Sample range [" + fromSample + ", " + toSample
+                    + ") outside series of " + series.sampleCount() + " samples");
+        }
+        this.series = series;
+        this.fromSample = fromSample;
+        this.toSample = toSample;
+        this.batchSize = Math.max(1, batchSize);
+        this.shuffle = shuffle;
+
+        int batches = (toSample - fromSample + this.batchSize - 1) / this.batchSize;
+        this.batchOrder = new int[batches];
+        reset();
+    }
+
+    /** All samples of the series, in chronological order. */
+    public SeriesDataSetIterator(FeatureEngine.Series series, int batchSize) {
+        this(series, 0, series.sampleCount(), batchSize, null);
+    }
+
+    /** Number of samples covered by one pass. */
+    public int sampleCount() {
+        return toSample - fromSample;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < batchOrder.length;
+    }
+
+    @Override
+    public DataSet next() {
+        return next(batchSize - offset);
+    }
+
+    /**
+     * Up to {@code num} consecutive windows from the current position. In chronological order
+     * they may span several batches; with shuffle they stop at the end of the current batch.
+     */
+    @Override
+    public DataSet next(int num) {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int batchStart = fromSample + batchOrder[cursor] * batchSize;
+        int start = batchStart + offset;
+        int end = shuffle == null ? toSample : Math.min(toSample, batchStart + batchSize);
+        int count = Math.min(Math.max(1, num), end - start);
+
+        if (start + count == toSample) {
+            // Range end: the short last batch is complete as well
+            cursor = shuffle == null ? batchOrder.length : cursor + 1;
+            offset = 0;
+        } else {
+            int consumed = offset + count;
+            cursor += consumed / batchSize;
+            offset = consumed % batchSize;
+        }
+
+        DataSet batch = batch(series, start, count);
+        if (preProcessor != null) {
+            preProcessor.preProcess(batch);
+        }
+        return batch;
+    }
+
+    @Override
+    public void reset() {
+        cursor = 0;
+        offset = 0;
+        for (int i = 0; i < batchOrder.length; i++) {
+            batchOrder[i] = i;
+        }
+        if (shuffle != null) {
+            for (int i = batchOrder.length - 1; i > 0; i--) {
+                int j = shuffle.nextInt(i + 1);
+                int tmp = batchOrder[i];
+                batchOrder[i] = batchOrder[j];
+                batchOrder[j] = tmp;
+            }
+        }
+    }
+
+    /** Raw (unnormalized) batch of {@code count} consecutive windows starting at {@code start}. */
+    public static DataSet batch(FeatureEngine.Series series, int start, int count) {
+        INDArray features = series.windows(start, count);
+        float[] labelData = new float[count * STEPS];
+        float[] maskData = new float[count * STEPS];
+        for (int i = 0; i < count; i++) {
+            // Only the last timestep carries a target
+            labelData[i * STEPS + STEPS - 1] = (float) series.target(start + i);
+            maskData[i * STEPS + STEPS - 1] = 1.0f;
+        }
+        INDArray labels = Nd4j.create(labelData, new long[]{count, 1, STEPS}, 'c');
+        INDArray labelMask = Nd4j.create(maskData, new long[]{count, STEPS}, 'c');
+        return new DataSet(features, labels, null, labelMask);
+    }
+
+    @Override
+    public int inputColumns() {
+        return FeatureEngine.FEATURES;
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return ModelConfig.OUTPUTS;
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.energy.energy_server.ai;
+
+import java.util.Arrays;
+
+/**
+ * Streaming per-hour-of-day baseline of consumption: exponentially weighted mean and variance,
+ * updated in O(1) per reading. Until an hour has {@code minSamples} readings the weight is 1/n,
+ * i.e. a plain running mean and variance. Afterwards updates are winsorized at {@code clip}
+ * standard deviations, so the anomalies being screened for cannot widen the band they are
+ * measured against (a robust z-score).
+ *
+ * <p>Not thread-safe: callers serialize access.
+ */
+public final class StatisticalDetector {
+
+    private static final int HOURS = 24;
+
+    private final double alpha;
+    private final int minSamples;
+    private final double clip;
+    private final double minStd;
+
+    private final double[] mean = new double[HOURS];
+    private final double[] variance = new double[HOURS];
+    private final long[] samples = new long[HOURS];
+
+    /**
+     * @param alpha  EWMA weight of a new reading once warmed up
+     * @param minStd floor of the standard deviation (kWh), so flat series do not yield huge scores
+     */
+    public StatisticalDetector(double alpha, int minSamples, double clip, double minStd) {
+        this.alpha = alpha;
+        this.minSamples = Math.max(2, minSamples);
+        this.clip = clip;
+        this.minStd = minStd;
+    }
+
+    /**
+     * Z-score of {@code value} against the baseline of {@code hour} (NaN while that hour is
+     * warming up), then folds the value into the baseline.
+     */
+    public double scoreAndUpdate(int hour, double value) {
+        long n = samples[hour];
+        boolean warm = n >= minSamples;
+        double std = std(hour);
+        double diff = value - mean[hour];
+        double z = warm ? diff / std : Double.NaN;
+        if (warm) {
+            diff = Math.max(-clip * std, Math.min(clip * std, diff));
+        }
+        double a = Math.max(alpha, 1.0 / (n + 1));
+        mean[hour] += a * diff;
+        variance[hour] = (1 - a) * (variance[hour] + a * diff * diff);
+        samples[hour] = n + 1;
+        return z;
+    }
+
+    /** Current baseline consumption for {@code hour}, in kWh. */
+    public double expected(int hour) {
+        return mean[hour];
+    }
+
+    public void reset() {
+        Arrays.fill(mean, 0.0);
+        Arrays.fill(variance, 0.0);
+        Arrays.fill(samples, 0L);
+    }
+
+    private double std(int hour) {
+        return Math.max(minStd, Math.sqrt(variance[hour]));
+    }
+}
@@ -0,0 +1,85 @@
+package com.energy.energy_server.ai;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Stateful one-step-at-a-time inference over a continuous reading stream.
+ * The LSTM hidden state is kept inside a private copy of the network and advanced with
+ * {@code rnnTimeStep} on a single {@code [1, 6, 1]} step per reading. Because the model
+ * was trained on 12-step windows starting from a zero state, the state is re-anchored
+ * every {@code reanchorSteps} readings by clearing it and replaying the full window of the
+ * {@link FeatureWindow.Snapshot}, which bounds the drift from the windowed prediction.
+ * A gap (skipped or reordered snapshot) or a window reset also forces a re-anchor.
+ *
+ * <p>Not thread-safe: callers serialize access.
+ */
+public final class StreamingPredictor {
+
+    private static final int STEPS = ModelConfig.TIME_STEPS;
+    private static final int FEATURES = FeatureEngine.FEATURES;
+
+    private final MultiLayerNetwork network;
+    private final NormalizerStandardize normalizer;
+    private final int reanchorSteps;
+    private final double labelMean;
+    private final double labelStd;
+
+    private int stepsSinceAnchor = -1;
+    private long lastSequence = -1;
+    private long lastGeneration = -1;
+
+    private long steps = 0;
+    private long anchors = 0;
+
+    /**
+     * @param network       a dedicated copy; its recurrent state is owned by this predictor
+     * @param reanchorSteps readings per re-anchor cycle (1 = every reading uses the full window)
+     */
+    public StreamingPredictor(MultiLayerNetwork network, NormalizerStandardize normalizer, int reanchorSteps) {
+        this.network = network;
+        this.normalizer = normalizer;
+        this.reanchorSteps = Math.max(1, reanchorSteps);
+        this.labelMean = normalizer.getLabelMean().getDouble(0);
+        this.labelStd = normalizer.getLabelStd().getDouble(0);
+    }
+
+    /** Consumes the snapshot's latest row and returns the next-hour prediction in kWh. */
+    public double step(FeatureWindow.Snapshot features) {
+        boolean contiguous = features.generation() == lastGeneration && features.sequence() == lastSequence + 1;
+        lastGeneration = features.generation();
+        lastSequence = features.sequence();
+        steps++;
+
+        INDArray output;
+        if (!contiguous || stepsSinceAnchor < 0 || stepsSinceAnchor >= reanchorSteps - 1) {
+            output = anchor(features);
+        } else {
+            INDArray input = Nd4j.create(features.latest(), new long[]{1, FEATURES, 1}, 'c');
+            normalizer.transform(input);
+            output = network.rnnTimeStep(input);
+            stepsSinceAnchor++;
+        }
+        double normPred = output.getDouble(0, 0, output.size(2) - 1);
+        return Math.max(0.0, (normPred * labelStd) + labelMean);
+    }
+
+    public long getStepCount() {
+        return steps;
+    }
+
+    public long getAnchorCount() {
+        return anchors;
+    }
+
+    private INDArray anchor(FeatureWindow.Snapshot features) {
+        INDArray input = Nd4j.create(features.window(), new long[]{1, FEATURES, STEPS}, 'c');
+        normalizer.transform(input);
+        network.rnnClearPreviousState();
+        stepsSinceAnchor = 0;
+        anchors++;
+        return network.rnnTimeStep(input);
+    }
+}
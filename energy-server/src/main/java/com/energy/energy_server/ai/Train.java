@@ -1,143 +1,200 @@
 package com.energy.energy_server.ai;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Random;
 
+import org.deeplearning4j.datasets.iterator.AsyncDataSetIterator;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.parallelism.ParallelWrapper;
 import org.deeplearning4j.util.ModelSerializer;
-import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
-import org.deeplearning4j.datasets.iterator.ExistingDataSetIterator;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
-import java.util.Collections;
 import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
-import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
 
+/**
+ * Trains the LSTM on mini-batches, holding out the chronologically last
+ * {@code 1 - TRAIN_RATIO} of the samples to drive early stopping.
+ * With more than one worker, batches are trained data-parallel by a {@link ParallelWrapper}
+ * (one model replica per core, parameters averaged every {@code AVERAGING_FREQUENCY} batches).
+ * The best model by validation loss is checkpointed and is the one exported.
+ * Samples come from the CSV dataset or, with {@code -Ddata.source=db}, are streamed from the
+ * readings table (see {@link ReadingsDataSetIterator}).
+ *
+ * <p>Usage: Train [workers] [batchSize] [maxEpochs]
+ */
 public class Train {
     public static void main(String[] args) throws Exception {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : ModelConfig.BATCH_SIZE;
+        int maxEpochs = args.length > 2 ? Integer.parseInt(args[2]) : ModelConfig.EPOCHS;
+
         // 1. DATA LOADING
-        List<double[]> processedData = loadAndEngineerData(new File(ModelConfig.CSV_PATH));
-        
-        int timeSteps = ModelConfig.TIME_STEPS;
-        int numSamples = processedData.size() - timeSteps;
-        int numFeatures = ModelConfig.INPUT_FEATURES;
-
-        INDArray features = Nd4j.create(new int[]{numSamples, numFeatures, timeSteps}, 'c');
-        INDArray labels = Nd4j.create(new int[]{numSamples, 1, timeSteps}, 'c');
-        INDArray labelMask = Nd4j.create(new int[]{numSamples, timeSteps}, 'c');
-
-        for (int i = 0; i < numSamples; i++) {
-            for (int t = 0; t < timeSteps; t++) {
-                double[] row = processedData.get(i + t);
-                for (int f = 0; f < numFeatures; f++) {
-                    features.putScalar(new int[]{i, f, t}, row[f]);
-                }
+        // CSV dataset by default; -Ddata.source=db streams the readings table (time-split, not shuffled)
+        DataSetIterator train;
+        DataSetIterator validation;
+        int trainSamples;
+        int validationSamples;
+        if (ReadingsDataSetIterator.requested()) {
+            LocalDateTime from = ReadingsDataSetIterator.fromProperty();
+            LocalDateTime to = ReadingsDataSetIterator.toProperty();
+            LocalDateTime split = ReadingsDataSetIterator.splitPoint(from, to, ModelConfig.TRAIN_RATIO);
+            if (split == null) {
+                System.err.println("Error: No readings in the selected time range.");
+                return;
             }
-            double target = processedData.get(i + timeSteps)[6]; 
-            labels.putScalar(new int[]{i, 0, timeSteps - 1}, target);
-            labelMask.putScalar(new int[]{i, timeSteps - 1}, 1.0);
+            ReadingsDataSetIterator dbTrain = ReadingsDataSetIterator.open(from, split, batchSize);
+            ReadingsDataSetIterator dbValidation = ReadingsDataSetIterator.open(split, to, batchSize);
+            trainSamples = dbTrain.sampleCount();
+            validationSamples = dbValidation.sampleCount();
+            train = dbTrain;
+            validation = dbValidation;
+            System.out.println("Streaming readings from the database | Split at " + split);
+        } else {
+            FeatureEngine.Series series = FeatureEngine.loadCsv(new File(ModelConfig.CSV_PATH));
+            int numSamples = series.sampleCount();
+            trainSamples = (int) (numSamples * ModelConfig.TRAIN_RATIO);
+            validationSamples = numSamples - trainSamples;
+            train = new SeriesDataSetIterator(series, 0, trainSamples, batchSize, new Random(ModelConfig.SEED));
+            validation = new SeriesDataSetIterator(series, trainSamples, numSamples, batchSize, null);
         }
 
-        DataSet allData = new DataSet(features, labels, null, labelMask);
+        Fitted fitted;
+        try {
+            fitted = fit(train, validation, trainSamples, validationSamples, workers, maxEpochs,
+                    new File(ModelConfig.CHECKPOINT_PATH));
+        } finally {
+            if (train instanceof AutoCloseable c) c.close();
+            if (validation instanceof AutoCloseable c) c.close();
+        }
 
-        // 2. STANDARDIZATION
-        NormalizerStandardize normalizer = new NormalizerStandardize();
-        normalizer.fitLabel(true);
-        normalizer.fit(allData);
-        normalizer.transform(allData);
+        // 5. EXPORT (best checkpoint, not the last epoch)
+        ModelSerializer.writeModel(fitted.model(), ModelConfig.MODEL_EXPORT_PATH, true);
+        NormalizerSerializer.getDefault().write(fitted.normalizer(), ModelConfig.NORMALIZER_EXPORT_PATH);
+        System.out.println("Model and Normalizer saved successfully.");
+    }
+
+    /** The best model by validation loss and the normalizer fitted on its training split. */
+    record Fitted(MultiLayerNetwork model, NormalizerStandardize normalizer) {}
 
-        // 3. MODEL INIT
+    private static MultiLayerNetwork model() {
         MultiLayerNetwork model = new MultiLayerNetwork(LstmArchitecture.build());
         model.init();
-        
-        DataSetIterator iterator = new ExistingDataSetIterator(Collections.singletonList(allData));
-        double currentLr = ModelConfig.LEARNING_RATE;
-        double bestScore = Double.MAX_VALUE;
-        int patienceCounter = 0;
+        return model;
+    }
 
-        allData.setFeatures(allData.getFeatures().reshape(numSamples, numFeatures, timeSteps));
-        allData.setLabels(allData.getLabels().reshape(numSamples, 1, timeSteps));
+    /**
+     * Trains a fresh model on {@code train}, early-stopping on {@code validation}; also used by
+     * {@link EvaluateModel} to retrain at every backtest origin.
+     *
+     * @param checkpoint where the best epoch is kept while training
+     */
+    static Fitted fit(DataSetIterator train, DataSetIterator validation, int trainSamples, int validationSamples,
+                      int workers, int maxEpochs, File checkpoint) throws Exception {
+        MultiLayerNetwork model = model();
+        // 2. STANDARDIZATION (fitted on the training split only)
+        NormalizerStandardize normalizer = new NormalizerStandardize();
+        normalizer.fitLabel(true);
+        normalizer.fit(train);
+        train.reset();
+        train.setPreProcessor(normalizer);
+        validation.setPreProcessor(normalizer);
 
-        System.out.println("Final Features Shape: " + java.util.Arrays.toString(allData.getFeatures().shape()));
+        // 3. CHECKPOINTING
+        checkpoint.getAbsoluteFile().getParentFile().mkdirs();
 
         // 4. TRAINING LOOP
-        System.out.println("Starting training on " + numSamples + " samples with batch size " + ModelConfig.BATCH_SIZE);
-        for (int i = 0; i < ModelConfig.EPOCHS; i++) {
-            iterator.reset(); 
-            model.fit(iterator);
-            
-            double currentScore = model.score();
-            
-            if (currentScore < bestScore) {
-                bestScore = currentScore;
-                patienceCounter = 0;
-            } else {
-                patienceCounter++;
-            }
+        System.out.printf("Starting training on %d samples (%d validation) | Batch size: %d | Workers: %d%n",
+                trainSamples, validationSamples, train.batch(), workers);
 
-            if (patienceCounter >= 25) {
-                currentLr *= 0.5;
-                model.setLearningRate(currentLr);
-                patienceCounter = 0;
-                System.out.println("Epoch " + i + " | LR reduced to: " + currentLr);
-            }
-            
-            if (i % 50 == 0) {
-                System.out.println("Epoch " + i + " | Current Loss: " + currentScore);
-            }
-        }
-        
-        // 5. EXPORT
-        ModelSerializer.writeModel(model, ModelConfig.MODEL_EXPORT_PATH, true);
-        NormalizerSerializer.getDefault().write(normalizer, ModelConfig.NORMALIZER_EXPORT_PATH);
-        System.out.println("Model and Normalizer saved successfully.");
-    }
+        double currentLr = ModelConfig.LEARNING_RATE;
+        double bestScore = Double.MAX_VALUE;
+        int bestEpoch = -1;
+        int lrPatience = 0;
+        int stopPatience = 0;
+        int epochs = 0;
+        long trainingNanos = 0;
+        ParallelWrapper wrapper = workers > 1 ? buildWrapper(model, workers) : null;
+
+        try {
+            for (int i = 0; i < maxEpochs; i++) {
+                long epochStart = System.nanoTime();
+                train.reset();
+                if (wrapper != null) {
+                    wrapper.fit(train);
+                } else {
+                    AsyncDataSetIterator prefetched = new AsyncDataSetIterator(train, ModelConfig.PREFETCH_BUFFER);
+                    model.fit(prefetched);
+                    prefetched.shutdown();
+                }
+                long epochNanos = System.nanoTime() - epochStart;
+                trainingNanos += epochNanos;
+                epochs++;
+
+                double currentScore = validationLoss(model, validation);
+                if (currentScore < bestScore) {
+                    bestScore = currentScore;
+                    bestEpoch = i;
+                    lrPatience = 0;
+                    stopPatience = 0;
+                    ModelSerializer.writeModel(model, checkpoint, true);
+                } else {
+                    lrPatience++;
+                    stopPatience++;
+                }
 
-    public static List<double[]> loadAndEngineerData(File file) throws Exception {
-        List<double[]> list = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line = br.readLine(); // skip header
-            Double lastConsumption = null;
-            
-            while ((line = br.readLine()) != null) {
-                String[] p = line.split(",");
-                if (p.length < 11) continue; // Skip malformed lines
-
-                try {
-                    double temp = Double.parseDouble(p[1]);
-                    double occ = Double.parseDouble(p[4]);
-                    double hvac = p[6].trim().equalsIgnoreCase("On") ? 1.0 : 0.0;
-                    double consumption = Double.parseDouble(p[10]);
-                    
-                    // Robust Hour extraction
-                    int hour = extractHour(p[0]);
-                    double hSin = Math.sin(2 * Math.PI * hour / 24.0);
-                    double hCos = Math.cos(2 * Math.PI * hour / 24.0);
-                    
-                    double lag1h = (lastConsumption == null) ? consumption : lastConsumption;
-                    lastConsumption = consumption;
-
-                    // Row structure: 6 features + 1 target = 7 elements
-                    list.add(new double[]{temp, occ, hvac, lag1h, hSin, hCos, consumption});
-                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
-                    // Skip lines with parsing errors
+                if (i % 10 == 0) {
+                    System.out.printf("Epoch %d | Validation loss: %.5f | %.0f ms | %.0f samples/s%n",
+                            i, currentScore, epochNanos / 1e6, trainSamples / (epochNanos / 1e9));
+                }
+
+                if (stopPatience >= ModelConfig.EARLY_STOP_PATIENCE) {
+                    System.out.println("Epoch " + i + " | Early stopping: no improvement since epoch " + bestEpoch);
+                    break;
+                }
+                if (lrPatience >= ModelConfig.LR_PATIENCE) {
+                    currentLr *= 0.5;
+                    lrPatience = 0;
+                    // Replicas copy the learning rate when created: rebuild them around the updated model
+                    if (wrapper != null) wrapper.shutdown();
+                    model.setLearningRate(currentLr);
+                    if (wrapper != null) wrapper = buildWrapper(model, workers);
+                    System.out.println("Epoch " + i + " | LR reduced to: " + currentLr);
                 }
             }
+        } finally {
+            if (wrapper != null) wrapper.shutdown();
         }
-        return list;
+
+        double seconds = trainingNanos / 1e9;
+        System.out.printf("Training finished | Epochs: %d | Wall clock: %.1f s | Avg epoch: %.0f ms | Throughput: %.0f samples/s%n",
+                epochs, seconds, seconds * 1000 / Math.max(1, epochs), (double) trainSamples * epochs / seconds);
+        System.out.printf("Best validation loss: %.5f (epoch %d)%n", bestScore, bestEpoch);
+
+        return new Fitted(ModelSerializer.restoreMultiLayerNetwork(checkpoint), normalizer);
     }
 
-    private static int extractHour(String timestamp) {
-        try {
-            // Handles "2024-01-01 15:00:00" or "15:00:00"
-            String timePart = timestamp.contains(" ") ? timestamp.split(" ")[1] : timestamp;
-            return Integer.parseInt(timePart.split(":")[0]);
-        } catch (Exception e) {
-            return 0; // Default fallback
+    private static ParallelWrapper buildWrapper(MultiLayerNetwork model, int workers) {
+        return new ParallelWrapper.Builder<>(model)
+                .workers(workers)
+                .prefetchBuffer(ModelConfig.PREFETCH_BUFFER)
+                .averagingFrequency(ModelConfig.AVERAGING_FREQUENCY)
+                .reportScoreAfterAveraging(true)
+                .trainingMode(ParallelWrapper.TrainingMode.AVERAGING)
+                .build();
+    }
+
+    /** Example-weighted mean loss over the held-out split (dropout off). */
+    static double validationLoss(MultiLayerNetwork model, DataSetIterator validation) {
+        validation.reset();
+        double total = 0;
+        long examples = 0;
+        while (validation.hasNext()) {
+            DataSet batch = validation.next();
+            total += model.score(batch, false) * batch.numExamples();
+            examples += batch.numExamples();
         }
+        return examples == 0 ? Double.MAX_VALUE : total / examples;
     }
-}
\ No newline at end of file
+}
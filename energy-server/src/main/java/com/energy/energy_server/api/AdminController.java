@@ -1,8 +1,16 @@
 package com.energy.energy_server.api;
 
+import com.energy.energy_server.dto.AnomalyBackfillStatusDTO;
+import com.energy.energy_server.dto.InferenceStatsDTO;
+import com.energy.energy_server.dto.ModelRegistryStatusDTO;
+import com.energy.energy_server.dto.PasswordHashingStatsDTO;
+import com.energy.energy_server.dto.PreFilterStatsDTO;
+import com.energy.energy_server.dto.ReplayStreamDTO;
 import com.energy.energy_server.exception.UserNotFoundException;
 import com.energy.energy_server.model.User;
 import com.energy.energy_server.repository.UserRepository;
+import com.energy.energy_server.security.PasswordHashingService;
+import com.energy.energy_server.security.VerifiedTokenCache;
 import com.energy.energy_server.service.EnergySystemFacade;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +23,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
 
 import java.io.IOException;
 import java.util.List;
@@ -27,6 +36,8 @@ public class AdminController {
 
     private final UserRepository userRepository;
     private final EnergySystemFacade facade;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PasswordHashingService passwordHashingService;
 
     @Data
     static class RoleChangeRequest {
@@ -39,6 +50,18 @@ public class AdminController {
         private String newRole;
     }
 
+    @Data
+    static class ReplayStreamRequest {
+        // Defaults to the currently loaded dataset
+        private String datasetId;
+
+        // 1 = real time, N = N-fold compression, 0 = as fast as possible
+        @PositiveOrZero(message = "Speed must be >= 0")
+        private double speed = 1.0;
+
+        private boolean publishEvents = true;
+    }
+
     @GetMapping("/users")
     public ResponseEntity<List<User>> getAllUsers() {
         return ResponseEntity.ok(userRepository.findAll());
@@ -46,13 +69,18 @@ public class AdminController {
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException("User not found");
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
         userRepository.deleteById(id);
+        verifiedTokenCache.invalidateSubject(user.getEmail());
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/auth/hashing-stats")
+    public ResponseEntity<PasswordHashingStatsDTO> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
     @DeleteMapping("/data/clear")
     public ResponseEntity<?> clearDatabase() {
         facade.clearAllData();
@@ -66,7 +94,10 @@ public class AdminController {
 
         try {
             user.setRole(User.Role.valueOf(request.getNewRole().toUpperCase()));
+            user.setAuthChangedAt(System.currentTimeMillis());
             userRepository.save(user);
+            // Outstanding tokens carry the old role claim
+            verifiedTokenCache.invalidateSubject(user.getEmail());
             return ResponseEntity.ok("Role updated to " + request.getNewRole());
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid role");
@@ -79,6 +110,13 @@ public class AdminController {
         return ResponseEntity.ok("Data ingested successfully");
     }
 
+    @PostMapping("/synthetic-dataset")
+    public ResponseEntity<?> generateSyntheticDataset(@RequestParam(defaultValue = "42") long seed,
+                                                      @RequestParam(defaultValue = "100000") int rows) {
+        String datasetId = facade.loadSyntheticDataset(seed, rows);
+        return ResponseEntity.ok("Synthetic dataset generated: " + datasetId);
+    }
+
     @PostMapping("/simulation/start")
     public void startSimulation() {
         facade.startSimulation();
@@ -89,4 +127,76 @@ public class AdminController {
         facade.stopSimulation();
     }
 
+    @PostMapping("/replay/streams")
+    public ResponseEntity<ReplayStreamDTO> startReplayStream(@Valid @RequestBody ReplayStreamRequest request) throws IOException {
+        return ResponseEntity.ok(facade.startReplayStream(request.getDatasetId(), request.getSpeed(), request.isPublishEvents()));
+    }
+
+    @GetMapping("/replay/streams")
+    public ResponseEntity<List<ReplayStreamDTO>> getReplayStreams() {
+        return ResponseEntity.ok(facade.getReplayStreams());
+    }
+
+    @PostMapping("/replay/streams/{id}/pause")
+    public ResponseEntity<ReplayStreamDTO> pauseReplayStream(@PathVariable String id) {
+        return ResponseEntity.ok(facade.pauseReplayStream(id));
+    }
+
+    @PostMapping("/replay/streams/{id}/resume")
+    public ResponseEntity<ReplayStreamDTO> resumeReplayStream(@PathVariable String id) {
+        return ResponseEntity.ok(facade.resumeReplayStream(id));
+    }
+
+    @DeleteMapping("/replay/streams/{id}")
+    public ResponseEntity<ReplayStreamDTO> stopReplayStream(@PathVariable String id) {
+        return ResponseEntity.ok(facade.stopReplayStream(id));
+    }
+
+    @GetMapping("/ai/inference-stats")
+    public ResponseEntity<InferenceStatsDTO> getInferenceStats() {
+        return ResponseEntity.ok(facade.getInferenceStats());
+    }
+
+    @GetMapping("/ai/prefilter-stats")
+    public ResponseEntity<PreFilterStatsDTO> getPreFilterStats() {
+        return ResponseEntity.ok(facade.getPreFilterStats());
+    }
+
+    @GetMapping("/ai/models")
+    public ResponseEntity<ModelRegistryStatusDTO> getModelRegistryStatus() {
+        return ResponseEntity.ok(facade.getModelRegistryStatus());
+    }
+
+    @PostMapping("/ai/models/promote")
+    public ResponseEntity<ModelRegistryStatusDTO> promoteCandidateModel() {
+        return ResponseEntity.ok(facade.promoteCandidateModel());
+    }
+
+    @PostMapping("/ai/models/reject")
+    public ResponseEntity<ModelRegistryStatusDTO> rejectCandidateModel() {
+        return ResponseEntity.ok(facade.rejectCandidateModel());
+    }
+
+    @PostMapping("/ai/fine-tune")
+    public ResponseEntity<?> triggerFineTuning() {
+        return facade.triggerFineTuning()
+                ? ResponseEntity.accepted().body("Fine-tuning started in the background")
+                : ResponseEntity.ok("Fine-tuning already running");
+    }
+
+    @PostMapping("/ai/anomaly-backfill")
+    public ResponseEntity<AnomalyBackfillStatusDTO> startAnomalyBackfill() {
+        return ResponseEntity.accepted().body(facade.startAnomalyBackfill());
+    }
+
+    @GetMapping("/ai/anomaly-backfill")
+    public ResponseEntity<AnomalyBackfillStatusDTO> getAnomalyBackfillStatus() {
+        return ResponseEntity.ok(facade.getAnomalyBackfillStatus());
+    }
+
+    @DeleteMapping("/ai/anomaly-backfill")
+    public ResponseEntity<AnomalyBackfillStatusDTO> cancelAnomalyBackfill() {
+        return ResponseEntity.ok(facade.cancelAnomalyBackfill());
+    }
+
 }
\ No newline at end of file
@@ -5,9 +5,10 @@ import java.util.List;
 import lombok.NoArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -20,6 +21,7 @@ import com.energy.energy_server.exception.UserNotFoundException;
 import com.energy.energy_server.model.User;
 import com.energy.energy_server.repository.UserRepository;
 import com.energy.energy_server.security.JwtService;
+import com.energy.energy_server.security.PasswordHashingService;
 import com.energy.energy_server.security.TokenBlacklistService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,8 +42,9 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
     private final TokenBlacklistService blacklistService;
+    // BCrypt runs on its own bounded pool, never on request threads
+    private final PasswordHashingService passwordHashingService;
 
     @Data
     @AllArgsConstructor
@@ -91,7 +94,7 @@ public class AuthController {
 
         User user = User.builder()
                 .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.execute(() -> passwordEncoder.encode(request.getPassword())))
                 .email(request.getEmail())
                 .role(defaultRole) 
                 .build();
@@ -102,13 +105,21 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        passwordHashingService.checkAccount(request.getEmail());
+        final Authentication authentication;
+        try {
+            authentication = passwordHashingService.execute(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+            ));
+        } catch (BadCredentialsException e) {
+            passwordHashingService.recordFailure(request.getEmail());
+            throw e;
+        }
+        passwordHashingService.recordSuccess(request.getEmail());
 
         final User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
+        final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         final String token = jwtService.generateToken(userDetails);
         return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getRole().name()));
     }
@@ -4,14 +4,22 @@ import java.util.List;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.energy.energy_server.dto.ForecastDTO;
+import com.energy.energy_server.dto.ScenarioRequestDTO;
+import com.energy.energy_server.dto.ScenarioResponseDTO;
 import com.energy.energy_server.dto.SystemReportDTO;
 import com.energy.energy_server.dto.WeeklyStatsDTO;
 import com.energy.energy_server.service.EnergySystemFacade;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -38,8 +46,20 @@ public class EnergyController {
         return ResponseEntity.ok(facade.getWeeklyTrends());
     }
 
+    @GetMapping("/forecast")
+    public ResponseEntity<ForecastDTO> getForecast(@RequestParam(value = "hours", required = false) Integer hours) {
+        return ResponseEntity.ok(facade.getForecast(hours));
+    }
+
+    @PostMapping("/scenarios")
+    public ResponseEntity<ScenarioResponseDTO> runScenarios(@Valid @RequestBody ScenarioRequestDTO request) {
+        return ResponseEntity.ok(facade.runScenarios(request));
+    }
+
     @GetMapping("/stream")
-    public SseEmitter stream() {
-        return facade.subscribe();
+    public SseEmitter stream(
+            @RequestParam(value = "maxRate", required = false) Double maxRate,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return facade.subscribe(maxRate, lastEventId);
     }
 }
\ No newline at end of file
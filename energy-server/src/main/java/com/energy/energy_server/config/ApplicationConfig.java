@@ -13,6 +13,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.energy.energy_server.repository.UserRepository;
+import com.energy.energy_server.security.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -45,7 +46,26 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingService passwordHashingService) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        // BCrypt cannot be interrupted: skip the round when its caller has already timed out
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                passwordHashingService.checkpoint();
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                passwordHashingService.checkpoint();
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return bcrypt.upgradeEncoding(encodedPassword);
+            }
+        };
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.energy.energy_server.config;
 
+import com.energy.energy_server.service.components.ClusterNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -10,6 +11,7 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -25,6 +27,10 @@ public class RabbitMQConfig {
     public static final String QUEUE_NAME = "energy_fallback_queue";
     public static final String ROUTING_KEY = "energy.reading.save";
     public static final String DLQ_NAME = QUEUE_NAME + ".dlq";
+    public static final String TELEMETRY_FANOUT_EXCHANGE = "energy_telemetry_fanout";
+    public static final String TELEMETRY_FANOUT_QUEUE_PREFIX = "energy_telemetry.";
+    public static final String TOKEN_REVOCATION_EXCHANGE = "energy_token_revocations";
+    public static final String TOKEN_REVOCATION_QUEUE_PREFIX = "energy_token_revocations.";
 
     @Bean
     @Primary
@@ -65,6 +71,54 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(fallbackQueue).to(exchange).with(ROUTING_KEY);
     }
 
+    // Cross-node dashboard fan-out: one exclusive, self-deleting queue per replica
+    @Bean
+    @ConditionalOnProperty(name = "stream.fanout.mode", havingValue = "rabbit")
+    public FanoutExchange telemetryFanoutExchange() {
+        return new FanoutExchange(TELEMETRY_FANOUT_EXCHANGE, true, false);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "stream.fanout.mode", havingValue = "rabbit")
+    public Queue telemetryFanoutQueue(ClusterNode clusterNode) {
+        return QueueBuilder.nonDurable(TELEMETRY_FANOUT_QUEUE_PREFIX + clusterNode.getNodeId())
+                .exclusive()
+                .autoDelete()
+                // Reports are full snapshots: stale ones are worthless, keep only the newest
+                .withArgument("x-message-ttl", 30000)
+                .withArgument("x-max-length", 1000)
+                .withArgument("x-overflow", "drop-head")
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "stream.fanout.mode", havingValue = "rabbit")
+    public Binding telemetryFanoutBinding(Queue telemetryFanoutQueue, FanoutExchange telemetryFanoutExchange) {
+        return BindingBuilder.bind(telemetryFanoutQueue).to(telemetryFanoutExchange);
+    }
+
+    // Cross-node token revocations: one exclusive queue per replica, nothing may be dropped
+    @Bean
+    @ConditionalOnProperty(name = "security.blacklist.fanout.mode", havingValue = "rabbit")
+    public FanoutExchange tokenRevocationExchange() {
+        return new FanoutExchange(TOKEN_REVOCATION_EXCHANGE, true, false);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "security.blacklist.fanout.mode", havingValue = "rabbit")
+    public Queue tokenRevocationQueue(ClusterNode clusterNode) {
+        return QueueBuilder.nonDurable(TOKEN_REVOCATION_QUEUE_PREFIX + clusterNode.getNodeId())
+                .exclusive()
+                .autoDelete()
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "security.blacklist.fanout.mode", havingValue = "rabbit")
+    public Binding tokenRevocationBinding(Queue tokenRevocationQueue, FanoutExchange tokenRevocationExchange) {
+        return BindingBuilder.bind(tokenRevocationQueue).to(tokenRevocationExchange);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter(ObjectMapper objectMapper) {
         return new MessageConverter() {
@@ -0,0 +1,16 @@
+package com.energy.energy_server.dto;
+
+import java.time.LocalDateTime;
+
+public record AnomalyBackfillStatusDTO(
+    String state,
+    String modelVersion,
+    long totalReadings,
+    long scannedReadings,
+    long labeledReadings,
+    long anomalies,
+    double readingsPerSecond,
+    LocalDateTime startedAt,
+    LocalDateTime finishedAt,
+    String error
+) {}
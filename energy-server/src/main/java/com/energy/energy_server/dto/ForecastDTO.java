@@ -0,0 +1,16 @@
+package com.energy.energy_server.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ForecastDTO(
+    String modelVersion,
+    LocalDateTime origin,
+    int horizonHours,
+    List<PointDTO> points,
+    double totalKwh,
+    boolean cached,
+    double computeMs
+) {
+    public record PointDTO(LocalDateTime timestamp, double kwh) {}
+}
@@ -0,0 +1,15 @@
+package com.energy.energy_server.dto;
+
+public record InferenceStatsDTO(
+    int workers,
+    int queueCapacity,
+    int queueDepth,
+    int inFlight,
+    long submitted,
+    long completed,
+    long shed,
+    long timedOut,
+    long failed,
+    double avgLatencyMs,
+    double maxLatencyMs
+) {}
@@ -0,0 +1,14 @@
+package com.energy.energy_server.dto;
+
+public record ModelRegistryStatusDTO(
+    String liveVersion,
+    String liveBackend,
+    String candidateVersion,
+    long shadowSamples,
+    double liveMae,
+    double candidateMae,
+    double liveLatencyMs,
+    double candidateLatencyMs,
+    long shadowDropped,
+    String lastEvent
+) {}
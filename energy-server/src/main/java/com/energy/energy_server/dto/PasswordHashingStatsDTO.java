@@ -0,0 +1,15 @@
+package com.energy.energy_server.dto;
+
+public record PasswordHashingStatsDTO(
+    int threads,
+    int queueCapacity,
+    int queueDepth,
+    long completed,
+    long rejectedSaturated,
+    long rejectedThrottled,
+    long timedOut,
+    long abandoned,
+    double avgHashMs,
+    double maxHashMs,
+    double avgQueueWaitMs
+) {}
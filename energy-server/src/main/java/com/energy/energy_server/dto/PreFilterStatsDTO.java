@@ -0,0 +1,14 @@
+package com.energy.energy_server.dto;
+
+public record PreFilterStatsDTO(
+    boolean enabled,
+    long screened,
+    long skipped,
+    long avoided,
+    double avoidedFraction,
+    long neuralChecks,
+    long compared,
+    double agreementRate,
+    long audited,
+    long auditMisses
+) {}
@@ -0,0 +1,13 @@
+package com.energy.energy_server.dto;
+
+public record ReplayStreamDTO(
+    String id,
+    String datasetId,
+    double speed,
+    String state,
+    long cursor,
+    long total,
+    long emitted,
+    long failures,
+    double throughputPerSecond
+) {}
@@ -0,0 +1,22 @@
+package com.energy.energy_server.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * One what-if perturbation of the base window; null fields leave the feature unchanged.
+ *
+ * @param temperatureDelta added to the temperature (°C)
+ * @param occupancyFactor  multiplies the occupancy (0.5 = halved)
+ * @param lighting         forces the lighting switch "On" or "Off"
+ */
+public record ScenarioDTO(
+    @NotBlank(message = "Scenario name is required")
+    String name,
+    Double temperatureDelta,
+    @PositiveOrZero(message = "Occupancy factor must be >= 0")
+    Double occupancyFactor,
+    @Pattern(regexp = "(?i)On|Off", message = "Lighting must be On or Off")
+    String lighting
+) {}
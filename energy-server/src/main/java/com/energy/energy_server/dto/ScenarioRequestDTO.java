@@ -0,0 +1,18 @@
+package com.energy.energy_server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ScenarioRequestDTO(
+    @Min(value = 1, message = "Horizon must be at least 1 hour")
+    @Max(value = 24, message = "Horizon must be at most 24 hours")
+    int horizonHours,
+    @NotEmpty(message = "At least one scenario is required")
+    @Size(max = 32, message = "At most 32 scenarios per request")
+    List<@Valid ScenarioDTO> scenarios
+) {}
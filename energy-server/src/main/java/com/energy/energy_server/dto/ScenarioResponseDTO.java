@@ -0,0 +1,11 @@
+package com.energy.energy_server.dto;
+
+import java.util.List;
+
+public record ScenarioResponseDTO(
+    String modelVersion,
+    int horizonHours,
+    List<ScenarioResultDTO> scenarios,
+    boolean cached,
+    double computeMs
+) {}
@@ -0,0 +1,10 @@
+package com.energy.energy_server.dto;
+
+import java.util.List;
+
+public record ScenarioResultDTO(
+    String name,
+    List<Double> hourlyKwh,
+    double totalKwh,
+    double deltaVsBaselineKwh
+) {}
@@ -0,0 +1,21 @@
+package com.energy.energy_server.dto;
+
+/**
+ * Dashboard event shared between replicas: either a status change or a report.
+ * {@code eventId} is unique per event and is used for node-local dedupe.
+ */
+public record StreamEventDTO(
+    String originNode,
+    String eventId,
+    String status,
+    SystemReportDTO report
+) {
+
+    public static StreamEventDTO ofReport(String originNode, String eventId, SystemReportDTO report) {
+        return new StreamEventDTO(originNode, eventId, null, report);
+    }
+
+    public static StreamEventDTO ofStatus(String originNode, String eventId, String status) {
+        return new StreamEventDTO(originNode, eventId, status, null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.energy.energy_server.model;
+
+import java.time.LocalDateTime;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Offline anomaly verdict for one stored reading, written by the historical backfill.
+ * One row per reading: a later backfill (e.g. after a model promotion) overwrites it.
+ */
+@Data
+@Entity
+@Table(name = "anomaly_labels", indexes = @Index(name = "idx_anomaly_labels_anomaly", columnList = "anomaly"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnomalyLabel {
+
+    @Id
+    private Long readingId;
+
+    private String modelVersion;
+    private double predictedKwh;
+    private double actualKwh;
+    private double deviationKwh;
+    private boolean anomaly;
+    private LocalDateTime labeledAt;
+}
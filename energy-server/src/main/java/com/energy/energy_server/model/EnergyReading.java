@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 
 @Data
 @Entity
-@Table(name = "energy_readings")
+@Table(name = "energy_readings", indexes = @Index(name = "idx_energy_readings_timestamp", columnList = "timestamp"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class EnergyReading {
@@ -0,0 +1,29 @@
+package com.energy.energy_server.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A logged-out token, by its 128-bit digest in hex, kept until the token itself expires.
+ * Replicas load the live rows at startup and pick up rows they missed on the fanout, so a
+ * revocation survives restarts and lost broadcasts. Times are epoch millis.
+ */
+@Data
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Column(length = 32)
+    private String digest;
+
+    private long expiresAt;
+    private long revokedAt;
+}
@@ -0,0 +1,33 @@
+package com.energy.energy_server.model;
+
+import java.time.LocalDateTime;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cluster-wide lease for the simulation engine. Only the node named in
+ * {@code ownerNode} may replay readings until {@code expiresAt}; the replay
+ * position is kept here so a new leader resumes where the old one stopped.
+ * {@code uploadGeneration} grows with every dataset assignment, so the leader
+ * also rewinds when the same dataset is uploaded again.
+ */
+@Data
+@Entity
+@Table(name = "simulation_leases")
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationLease {
+
+    @Id
+    private String name;
+
+    private String ownerNode;
+    private LocalDateTime expiresAt;
+
+    private String datasetId;
+    private long replayCursor;
+    private long uploadGeneration;
+    private boolean running;
+}
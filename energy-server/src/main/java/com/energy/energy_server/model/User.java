@@ -30,6 +30,9 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Role role; 
 
+    // Epoch millis of the last role change; tokens issued before it carry a stale role claim
+    private Long authChangedAt;
+
     public enum Role {
         USER, ADMIN
     }
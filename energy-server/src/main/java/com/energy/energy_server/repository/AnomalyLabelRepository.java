@@ -0,0 +1,10 @@
+package com.energy.energy_server.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.energy.energy_server.model.AnomalyLabel;
+
+public interface AnomalyLabelRepository extends JpaRepository<AnomalyLabel, Long> {
+
+    long countByAnomalyTrue();
+}
@@ -3,7 +3,10 @@ package com.energy.energy_server.repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.energy.energy_server.model.EnergyReading;
 
 public interface EnergyReadingRepository extends JpaRepository<EnergyReading, Long> {
@@ -13,4 +16,14 @@ public interface EnergyReadingRepository extends JpaRepository<EnergyReading, Lo
     List<EnergyReading> findByTimestampAfter(LocalDateTime timestamp);
 
     List<EnergyReading> findTop100ByOrderByTimestampDesc();
+
+    List<EnergyReading> findByOrderByTimestampDesc(Pageable pageable);
+
+    /** First page of a keyset scan in time order. */
+    List<EnergyReading> findByOrderByTimestampAscIdAsc(Pageable pageable);
+
+    /** Next page of a keyset scan in time order, after the reading ({@code timestamp}, {@code id}). */
+    @Query("SELECT r FROM EnergyReading r WHERE r.timestamp > :timestamp OR (r.timestamp = :timestamp AND r.id > :id) " +
+           "ORDER BY r.timestamp ASC, r.id ASC")
+    List<EnergyReading> findPageAfter(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.energy.energy_server.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.energy.energy_server.model.RevokedToken;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /** Unexpired revocations in digest order, one page after {@code after} (keyset paging). */
+    @Query("SELECT r FROM RevokedToken r WHERE r.expiresAt > :now AND r.digest > :after ORDER BY r.digest")
+    List<RevokedToken> findLiveAfter(@Param("now") long now, @Param("after") String after, Pageable page);
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqual(long since);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
@@ -0,0 +1,44 @@
+package com.energy.energy_server.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.energy.energy_server.model.SimulationLease;
+
+public interface SimulationLeaseRepository extends JpaRepository<SimulationLease, String> {
+
+    /** Acquires or renews the lease; returns 1 when {@code node} holds it afterwards. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SimulationLease l SET l.ownerNode = :node, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND (l.ownerNode = :node OR l.ownerNode IS NULL OR l.expiresAt < :now)")
+    int tryAcquire(@Param("name") String name, @Param("node") String node,
+                   @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /** Fenced cursor update: ignored unless {@code node} is still the owner. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SimulationLease l SET l.replayCursor = :cursor WHERE l.name = :name AND l.ownerNode = :node")
+    int saveCursor(@Param("name") String name, @Param("node") String node, @Param("cursor") long cursor);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SimulationLease l SET l.datasetId = :datasetId, l.replayCursor = 0, " +
+           "l.uploadGeneration = l.uploadGeneration + 1, l.running = false WHERE l.name = :name")
+    int assignDataset(@Param("name") String name, @Param("datasetId") String datasetId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SimulationLease l SET l.running = :running WHERE l.name = :name")
+    int updateRunning(@Param("name") String name, @Param("running") boolean running);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SimulationLease l SET l.expiresAt = :now WHERE l.name = :name AND l.ownerNode = :node")
+    int release(@Param("name") String name, @Param("node") String node, @Param("now") LocalDateTime now);
+}
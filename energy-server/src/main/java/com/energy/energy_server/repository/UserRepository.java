@@ -9,4 +9,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email); 
 
     boolean existsByEmail(String email);
+
+    /** Just what token verification needs, without loading the password hash. */
+    interface AuthState {
+        User.Role getRole();
+
+        Long getAuthChangedAt();
+    }
+
+    Optional<AuthState> findAuthStateByEmail(String email);
 }
\ No newline at end of file
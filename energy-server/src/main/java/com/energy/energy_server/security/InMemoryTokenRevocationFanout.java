@@ -0,0 +1,28 @@
+package com.energy.energy_server.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single-node stand-in for the broker: revocations and invalidations are applied in-process only.
+ * Used for local runs and tests without RabbitMQ.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.blacklist.fanout.mode", havingValue = "local", matchIfMissing = true)
+public class InMemoryTokenRevocationFanout implements TokenRevocationFanout {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(TokenRevocation revocation) {
+        eventPublisher.publishEvent(revocation);
+    }
+
+    @Override
+    public void publish(SubjectInvalidation invalidation) {
+        eventPublisher.publishEvent(invalidation);
+    }
+}
@@ -7,8 +7,6 @@ import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,8 +22,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    // Signed role claim + verified-token cache: no user lookup per request
+    private final VerifiedTokenCache verifiedTokenCache;
     private final TokenBlacklistService blacklistService;
 
     @Override
@@ -37,7 +35,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
+        final VerifiedTokenCache.VerifiedToken verified;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -45,14 +43,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
+        // One hash serves both the blacklist and the verified-token cache
+        final TokenDigest digest = TokenDigest.of(jwt);
 
-        if (blacklistService.isBlacklisted(jwt)) {
+        if (blacklistService.isBlacklisted(digest)) {
             sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Token is blacklisted (Logged out)");
             return;
         }
 
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            verified = verifiedTokenCache.verify(jwt, digest);
         } catch (ExpiredJwtException e) {
             log.warn("JWT Expired: {}", e.getMessage());
             sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "JWT Token has expired");
@@ -63,18 +63,19 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        if (verified == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "User no longer exists");
+            return;
+        }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    verified.subject(),
+                    null,
+                    verified.authorities()
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,231 @@
+package com.energy.energy_server.security;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.energy.energy_server.dto.PasswordHashingStatsDTO;
+import com.energy.energy_server.exception.TooManyRequestsException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs BCrypt work (login verification, registration hashing) on a small dedicated pool so
+ * that a login storm cannot take every core from streaming and telemetry processing.
+ *
+ * <p>Admission control: the pool has a bounded queue and a full queue rejects at once with
+ * {@link TooManyRequestsException} (HTTP 429) instead of queueing unboundedly; a caller that
+ * waits longer than the timeout gives up the same way. A BCrypt round cannot be interrupted,
+ * so work whose caller gave up is skipped before it starts: a queued task past its caller's
+ * deadline is dropped, and the password encoder calls {@link #checkpoint()} right before
+ * hashing. Independently, an account with
+ * {@code security.login.max-failures} failed logins inside the throttle window is refused
+ * until the window has passed.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final int threads;
+    private final int queueCapacity;
+    private final long timeoutMs;
+    private final int maxFailures;
+    private final long throttleWindowMs;
+
+    private final ThreadPoolExecutor executor;
+    // Failed logins per account (lower-cased email), counted from the first failure of the window.
+    // Not size-bounded: evicting live entries would let a spray of other emails reset a throttle.
+    // Growth is bounded anyway, a failure costs one BCrypt round on this pool (unknown emails too),
+    // so at most threads x hash rate x window entries exist.
+    private final Cache<String, AtomicInteger> failures;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejectedSaturated = new LongAdder();
+    private final LongAdder rejectedThrottled = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    // Max hash latency since the last stats log
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    // System.nanoTime deadline of the task running on this pool thread
+    private final ThreadLocal<Long> taskDeadline = new ThreadLocal<>();
+
+    public PasswordHashingService(@Value("${security.password.threads:0}") int threads,
+                                  @Value("${security.password.queue-capacity:32}") int queueCapacity,
+                                  @Value("${security.password.timeout-ms:3000}") long timeoutMs,
+                                  @Value("${security.login.max-failures:5}") int maxFailures,
+                                  @Value("${security.login.throttle-window-ms:300000}") long throttleWindowMs) {
+        // Default: half the cores, leaving the rest to request handling and inference
+        this.threads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.timeoutMs = timeoutMs;
+        this.maxFailures = Math.max(1, maxFailures);
+        this.throttleWindowMs = throttleWindowMs;
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                Thread.ofPlatform().daemon().name("nexus-bcrypt-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.failures = CacheBuilder.newBuilder()
+                .expireAfterWrite(throttleWindowMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool and waits for it. Runtime exceptions of the task
+     * (e.g. {@code BadCredentialsException}) propagate unchanged.
+     *
+     * @throws TooManyRequestsException if the pool is saturated or the task waited too long
+     */
+    public <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        long deadline = submittedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                waitNanos.add(start - submittedAt);
+                if (start - deadline >= 0) {
+                    abandoned.increment();
+                    throw new CancellationException("Caller already gave up");
+                }
+                taskDeadline.set(deadline);
+                try {
+                    return task.call();
+                } finally {
+                    taskDeadline.remove();
+                    long elapsed = System.nanoTime() - start;
+                    completed.increment();
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedSaturated.increment();
+            throw new TooManyRequestsException("Authentication service busy, retry shortly", 1);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            timedOut.increment();
+            throw new TooManyRequestsException("Authentication service busy, retry shortly", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                // Skipped at its deadline, just before the wait above timed out
+                timedOut.increment();
+                throw new TooManyRequestsException("Authentication service busy, retry shortly", 1);
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing");
+        }
+    }
+
+    /**
+     * Called right before a BCrypt round on the hashing pool: throws if the caller has timed out
+     * or cancelled meanwhile, since the round itself would run to completion regardless.
+     * A no-op on other threads.
+     */
+    public void checkpoint() {
+        Long deadline = taskDeadline.get();
+        if (deadline == null) {
+            return;
+        }
+        if (Thread.interrupted() || System.nanoTime() - deadline >= 0) {
+            abandoned.increment();
+            throw new CancellationException("Caller already gave up");
+        }
+    }
+
+    /** Refuses the login before any BCrypt work if the account is throttled. */
+    public void checkAccount(String email) {
+        AtomicInteger count = failures.getIfPresent(key(email));
+        if (count != null && count.get() >= maxFailures) {
+            rejectedThrottled.increment();
+            throw new TooManyRequestsException("Too many failed login attempts, retry later",
+                    TimeUnit.MILLISECONDS.toSeconds(throttleWindowMs));
+        }
+    }
+
+    public void recordFailure(String email) {
+        try {
+            failures.get(key(email), AtomicInteger::new).incrementAndGet();
+        } catch (ExecutionException e) {
+            // AtomicInteger::new cannot fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void recordSuccess(String email) {
+        failures.invalidate(key(email));
+    }
+
+    public PasswordHashingStatsDTO getStats() {
+        long done = completed.sum();
+        return new PasswordHashingStatsDTO(
+                threads,
+                queueCapacity,
+                executor.getQueue().size(),
+                done,
+                rejectedSaturated.sum(),
+                rejectedThrottled.sum(),
+                timedOut.sum(),
+                abandoned.sum(),
+                done == 0 ? 0.0 : hashNanos.sum() / 1e6 / done,
+                maxHashNanos.get() / 1e6,
+                done == 0 ? 0.0 : waitNanos.sum() / 1e6 / done);
+    }
+
+    @Scheduled(fixedRateString = "${security.password.stats-log-ms:60000}")
+    public void logStats() {
+        PasswordHashingStatsDTO stats = getStats();
+        if (stats.completed() == 0 && stats.rejectedSaturated() == 0 && stats.rejectedThrottled() == 0) return;
+        log.info("Password hashing | Depth: {}/{} | Completed: {} | Rejected (busy): {} | Rejected (throttled): {} | Timed out: {} | Skipped: {} | Avg: {} ms | Max: {} ms | Avg wait: {} ms",
+                stats.queueDepth(), stats.queueCapacity(), stats.completed(), stats.rejectedSaturated(),
+                stats.rejectedThrottled(), stats.timedOut(), stats.abandoned(),
+                String.format("%.2f", stats.avgHashMs()), String.format("%.2f", stats.maxHashMs()),
+                String.format("%.2f", stats.avgQueueWaitMs()));
+        maxHashNanos.set(0);
+    }
+
+    /** Cancels a task whose caller gave up; a queued one also frees its queue slot at once. */
+    private void abandon(Future<?> future) {
+        future.cancel(true);
+        if (future instanceof Runnable queued) {
+            executor.remove(queued);
+        }
+    }
+
+    private static String key(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
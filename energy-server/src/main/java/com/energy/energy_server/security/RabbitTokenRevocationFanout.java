@@ -0,0 +1,68 @@
+package com.energy.energy_server.security;
+
+import com.energy.energy_server.config.RabbitMQConfig;
+import com.energy.energy_server.service.components.ClusterNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cross-node revocations over a RabbitMQ fanout exchange. The local node is updated
+ * before the broker round trip; every other replica receives the message on its own
+ * exclusive queue. Applying either message twice is harmless, so echoes need no deduplication.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.blacklist.fanout.mode", havingValue = "rabbit")
+@RabbitListener(queues = "#{tokenRevocationQueue.name}", concurrency = "1")
+public class RabbitTokenRevocationFanout implements TokenRevocationFanout {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterNode clusterNode;
+
+    @Override
+    public void publish(TokenRevocation revocation) {
+        eventPublisher.publishEvent(revocation);
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.TOKEN_REVOCATION_EXCHANGE, "", revocation);
+        } catch (Exception e) {
+            // The token stays valid on other replicas until it expires
+            log.error("NEXUS_CLUSTER | Revocation publish failed | Error: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void publish(SubjectInvalidation invalidation) {
+        eventPublisher.publishEvent(invalidation);
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.TOKEN_REVOCATION_EXCHANGE, "", invalidation);
+        } catch (Exception e) {
+            // Other replicas still re-check the persisted role change once their cache entry expires
+            log.error("NEXUS_CLUSTER | Invalidation publish failed | Subject: {} | Error: {}",
+                    invalidation.subject(), e.getMessage());
+        }
+    }
+
+    @RabbitHandler
+    public void onClusterRevocation(TokenRevocation revocation) {
+        if (clusterNode.getNodeId().equals(revocation.originNode())) {
+            return;
+        }
+        eventPublisher.publishEvent(revocation);
+    }
+
+    @RabbitHandler
+    public void onClusterInvalidation(SubjectInvalidation invalidation) {
+        if (clusterNode.getNodeId().equals(invalidation.originNode())) {
+            return;
+        }
+        eventPublisher.publishEvent(invalidation);
+    }
+}
@@ -0,0 +1,4 @@
+package com.energy.energy_server.security;
+
+/** A user whose role changed or whose account was deleted: cached authentications must go. */
+public record SubjectInvalidation(String originNode, String subject) {}
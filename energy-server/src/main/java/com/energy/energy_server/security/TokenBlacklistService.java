@@ -1,32 +1,152 @@
 package com.energy.energy_server.security;
 
-import java.util.concurrent.TimeUnit;
+import java.util.Date;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.energy.energy_server.model.RevokedToken;
+import com.energy.energy_server.repository.RevokedTokenRepository;
+import com.energy.energy_server.service.components.ClusterNode;
 
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logged-out tokens, by {@link TokenDigest}, each until its own {@code exp}: a revoked token
+ * can never become valid again while it could still authenticate. Revocations reach every
+ * replica through the {@link TokenRevocationFanout} and are persisted as {@link RevokedToken}
+ * rows: a replica loads the live ones at startup and periodically re-reads recent ones, so a
+ * restart or a lost broadcast does not bring a logged-out token back.
+ */
+@Slf4j
 @Service
 public class TokenBlacklistService {
 
-    private final Cache<String, Boolean> tokenBlacklist;
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    // Re-read window behind the last sync: rows are stamped by the revoking node's clock
+    private static final long SYNC_OVERLAP_MS = 60_000;
+
+    private final JwtService jwtService;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenRevocationFanout revocationFanout;
+    private final ClusterNode clusterNode;
+    private final TokenRevocationTable revoked;
+
+    private volatile boolean loaded = false;
+    private volatile long lastSyncMillis;
 
-    public TokenBlacklistService(@Value("${JWT_EXPIRATION_MS}") long expirationMs) {
-        this.tokenBlacklist = CacheBuilder.newBuilder()
-                .expireAfterWrite(expirationMs, TimeUnit.MILLISECONDS)
-                .maximumSize(10000) 
-                .build();
+    public TokenBlacklistService(JwtService jwtService,
+                                 RevokedTokenRepository revokedTokenRepository,
+                                 TokenRevocationFanout revocationFanout,
+                                 ClusterNode clusterNode,
+                                 @Value("${security.blacklist.initial-capacity:65536}") int initialCapacity) {
+        this.jwtService = jwtService;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revocationFanout = revocationFanout;
+        this.clusterNode = clusterNode;
+        this.revoked = new TokenRevocationTable(initialCapacity);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            loadPersisted();
+        } catch (DataAccessException e) {
+            log.error("Token blacklist could not be loaded, retrying on the next sync: {}", e.getMessage());
+        }
     }
 
     public void blacklistToken(String token) {
-        if (token != null) {
-            tokenBlacklist.put(token, true);
+        if (token == null) {
+            return;
         }
+        Date expiration;
+        try {
+            expiration = jwtService.parse(token).getExpiration();
+        } catch (JwtException | IllegalArgumentException e) {
+            // Expired, forged or malformed: it cannot authenticate anyway
+            return;
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        try {
+            revokedTokenRepository.save(new RevokedToken(digest.toHex(), expiration.getTime(), System.currentTimeMillis()));
+        } catch (DataAccessException e) {
+            // Still revoked on every running replica; only a restart before expiry would forget it
+            log.error("Token revocation not persisted: {}", e.getMessage());
+        }
+        revocationFanout.publish(new TokenRevocation(clusterNode.getNodeId(), digest.high(), digest.low(),
+                expiration.getTime()));
     }
 
     public boolean isBlacklisted(String token) {
-        return token != null && tokenBlacklist.getIfPresent(token) != null;
+        return token != null && isBlacklisted(TokenDigest.of(token));
+    }
+
+    public boolean isBlacklisted(TokenDigest digest) {
+        return revoked.contains(digest.high(), digest.low(), System.currentTimeMillis());
+    }
+
+    @EventListener
+    public void onRevocation(TokenRevocation revocation) {
+        revoked.add(revocation.high(), revocation.low(), revocation.expiresAt());
+    }
+
+    @Scheduled(fixedDelayString = "${security.blacklist.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int removed = revoked.purgeExpired(System.currentTimeMillis());
+        if (removed > 0) {
+            log.debug("Token blacklist purged {} expired entries, {} remain", removed, revoked.size());
+        }
+    }
+
+    /** Catches up on revocations persisted by other replicas and deletes expired rows. */
+    @Scheduled(fixedDelayString = "${security.blacklist.sync-interval-ms:60000}")
+    public void synchronize() {
+        try {
+            if (!loaded) {
+                loadPersisted();
+            } else {
+                long now = System.currentTimeMillis();
+                revokedTokenRepository.findByRevokedAtGreaterThanEqual(lastSyncMillis - SYNC_OVERLAP_MS)
+                        .forEach(this::add);
+                lastSyncMillis = now;
+            }
+            int deleted = revokedTokenRepository.deleteExpired(System.currentTimeMillis());
+            if (deleted > 0) {
+                log.debug("Token blacklist deleted {} expired rows", deleted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Token blacklist sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void loadPersisted() {
+        long start = System.currentTimeMillis();
+        String after = "";
+        int total = 0;
+        List<RevokedToken> page;
+        do {
+            page = revokedTokenRepository.findLiveAfter(start, after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            page.forEach(this::add);
+            total += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getDigest();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        lastSyncMillis = start;
+        loaded = true;
+        log.info("Token blacklist loaded {} persisted revocations", total);
+    }
+
+    private void add(RevokedToken row) {
+        TokenDigest digest = TokenDigest.fromHex(row.getDigest());
+        revoked.add(digest.high(), digest.low(), row.getExpiresAt());
     }
-}
\ No newline at end of file
+}
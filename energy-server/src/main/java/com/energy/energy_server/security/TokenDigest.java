@@ -0,0 +1,30 @@
+package com.energy.energy_server.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Compact identity of a JWT: the first 128 bits of its SHA-256. Used as a cache key instead
+ * of the token string (hundreds of bytes); a cryptographic hash, so that a crafted token
+ * cannot collide with a verified one.
+ */
+public record TokenDigest(long high, long low) {
+
+    public static TokenDigest of(String token) {
+        ByteBuffer digest = ByteBuffer.wrap(Hashing.sha256().hashString(token, StandardCharsets.UTF_8).asBytes());
+        return new TokenDigest(digest.getLong(0), digest.getLong(8));
+    }
+
+    /** Inverse of {@link #toHex()}. */
+    public static TokenDigest fromHex(String hex) {
+        return new TokenDigest(Long.parseUnsignedLong(hex.substring(0, 16), 16),
+                Long.parseUnsignedLong(hex.substring(16, 32), 16));
+    }
+
+    /** 32 lowercase hex digits, the digest's persistent form. */
+    public String toHex() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -0,0 +1,4 @@
+package com.energy.energy_server.security;
+
+/** A logged-out token, by digest, valid until {@code expiresAt} (epoch millis). */
+public record TokenRevocation(String originNode, long high, long low, long expiresAt) {}
@@ -0,0 +1,13 @@
+package com.energy.energy_server.security;
+
+/**
+ * Distributes token revocations and subject invalidations to every replica.
+ * Implementations deliver each message to the local node by re-publishing it as a
+ * Spring application event, before {@code publish} returns.
+ */
+public interface TokenRevocationFanout {
+
+    void publish(TokenRevocation revocation);
+
+    void publish(SubjectInvalidation invalidation);
+}
@@ -0,0 +1,137 @@
+package com.energy.energy_server.security;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Open-addressing set of 128-bit token digests, each with its own expiry, kept in three
+ * primitive arrays: 20 bytes per slot and no per-entry objects, so millions of revoked tokens
+ * fit in tens of megabytes. Expiries are stored as int seconds from a base taken at
+ * construction; slot expiry 0 marks an empty slot.
+ *
+ * <p>Entries are never evicted before they expire. Expired ones stop matching at once and are
+ * dropped by {@link #purgeExpired} or when the table would otherwise grow. Thread-safe: lookups
+ * share a read lock.
+ */
+final class TokenRevocationTable {
+
+    private static final float MAX_LOAD = 0.75f;
+
+    private final long baseSeconds;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] highs;
+    private long[] lows;
+    private int[] expiries;
+    private int size;
+
+    TokenRevocationTable(int initialCapacity) {
+        this.baseSeconds = System.currentTimeMillis() / 1000 - 1;
+        allocate(Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1);
+    }
+
+    /** Adds a digest until {@code expiresAtMillis}; already expired tokens are ignored. */
+    void add(long high, long low, long expiresAtMillis) {
+        int expiry = offset((expiresAtMillis + 999) / 1000);
+        int now = offset(System.currentTimeMillis() / 1000);
+        if (expiry <= now) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > expiries.length * MAX_LOAD) {
+                int live = countLive(now);
+                rehash(live + 1 > expiries.length * MAX_LOAD / 2 ? expiries.length * 2 : expiries.length, now);
+            }
+            int slot = slotOf(high, low);
+            if (expiries[slot] == 0) {
+                highs[slot] = high;
+                lows[slot] = low;
+                size++;
+            }
+            expiries[slot] = Math.max(expiries[slot], expiry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(long high, long low, long nowMillis) {
+        int now = offset(nowMillis / 1000);
+        lock.readLock().lock();
+        try {
+            int expiry = expiries[slotOf(high, low)];
+            return expiry != 0 && expiry > now;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Drops expired entries; returns how many were removed. */
+    int purgeExpired(long nowMillis) {
+        int now = offset(nowMillis / 1000);
+        lock.writeLock().lock();
+        try {
+            int before = size;
+            if (countLive(now) < before) {
+                rehash(expiries.length, now);
+            }
+            return before - size;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Slot holding the digest, or the empty slot where it would go. */
+    private int slotOf(long high, long low) {
+        int mask = expiries.length - 1;
+        // SHA-256 bits are uniform: no further mixing needed
+        int slot = (int) low & mask;
+        while (expiries[slot] != 0 && (highs[slot] != high || lows[slot] != low)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int countLive(int now) {
+        int live = 0;
+        for (int expiry : expiries) {
+            if (expiry > now) live++;
+        }
+        return live;
+    }
+
+    private void rehash(int capacity, int now) {
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        int[] oldExpiries = expiries;
+        allocate(capacity);
+        for (int i = 0; i < oldExpiries.length; i++) {
+            if (oldExpiries[i] > now) {
+                int slot = slotOf(oldHighs[i], oldLows[i]);
+                highs[slot] = oldHighs[i];
+                lows[slot] = oldLows[i];
+                expiries[slot] = oldExpiries[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        highs = new long[capacity];
+        lows = new long[capacity];
+        expiries = new int[capacity];
+        size = 0;
+    }
+
+    private int offset(long epochSeconds) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, epochSeconds - baseSeconds));
+    }
+}
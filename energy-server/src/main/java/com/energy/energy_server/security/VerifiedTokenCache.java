@@ -0,0 +1,121 @@
+package com.energy.energy_server.security;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import com.energy.energy_server.repository.UserRepository;
+import com.energy.energy_server.service.components.ClusterNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authenticates bearer tokens without a database round trip per request. A token is parsed
+ * once (signature and expiry) and the result is cached by {@link TokenDigest} until the cache
+ * TTL or the token's expiry; only a cache miss reads the account.
+ *
+ * <p>On a miss the account's persisted {@code authChangedAt} is checked: tokens issued before
+ * the last role change take their role from the database instead of the stale signed claim,
+ * and tokens of deleted accounts are rejected. A role change or deletion also evicts the
+ * user's entries on every replica through the {@link TokenRevocationFanout}; a lost broadcast
+ * leaves a stale entry for at most one cache TTL.
+ */
+@Slf4j
+@Service
+public class VerifiedTokenCache {
+
+    /** A verified token: subject, authorities and expiry (epoch millis). */
+    public record VerifiedToken(String subject, List<GrantedAuthority> authorities, long expiresAt) {}
+
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final TokenRevocationFanout revocationFanout;
+    private final ClusterNode clusterNode;
+
+    private final Cache<TokenDigest, VerifiedToken> verified;
+    // Bumped by every invalidation, so a verification racing one does not cache its result
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              UserRepository userRepository,
+                              TokenRevocationFanout revocationFanout,
+                              ClusterNode clusterNode,
+                              @Value("${security.jwt.cache-size:10000}") long cacheSize,
+                              @Value("${security.jwt.cache-ttl-ms:300000}") long cacheTtlMs) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        this.revocationFanout = revocationFanout;
+        this.clusterNode = clusterNode;
+        this.verified = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the verified token, or null if its account no longer exists.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is expired, malformed or forged
+     */
+    public VerifiedToken verify(String token) {
+        return verify(token, TokenDigest.of(token));
+    }
+
+    /** As {@link #verify(String)}, reusing the caller's digest of {@code token}. */
+    public VerifiedToken verify(String token, TokenDigest digest) {
+        VerifiedToken hit = verified.getIfPresent(digest);
+        if (hit != null && hit.expiresAt() > System.currentTimeMillis()) {
+            return hit;
+        }
+
+        Claims claims = jwtService.parse(token);
+        String subject = claims.getSubject();
+        long generation = invalidations.get();
+        Optional<UserRepository.AuthState> account = userRepository.findAuthStateByEmail(subject);
+        if (account.isEmpty()) {
+            return null;
+        }
+        Long changedAt = account.get().getAuthChangedAt();
+        Date issuedAt = claims.getIssuedAt();
+        String role = claims.get("role", String.class);
+        if (role == null || (changedAt != null && (issuedAt == null || issuedAt.getTime() <= changedAt))) {
+            // Claim missing or issued before a role change: the database has the current role
+            role = account.get().getRole().name();
+        }
+
+        VerifiedToken result = new VerifiedToken(subject, List.of(new SimpleGrantedAuthority("ROLE_" + role)),
+                claims.getExpiration().getTime());
+        verified.put(digest, result);
+        if (generation != invalidations.get()) {
+            // Invalidated while we were verifying: do not keep a possibly stale role
+            verified.invalidate(digest);
+        }
+        return result;
+    }
+
+    /**
+     * Call after the user's role changed (and its {@code authChangedAt} was saved) or the
+     * account was deleted: evicts the user's cached authentications on every replica.
+     */
+    public void invalidateSubject(String subject) {
+        revocationFanout.publish(new SubjectInvalidation(clusterNode.getNodeId(), subject));
+    }
+
+    @EventListener
+    public void onSubjectInvalidation(SubjectInvalidation invalidation) {
+        invalidations.incrementAndGet();
+        verified.asMap().values().removeIf(token -> token.subject().equals(invalidation.subject()));
+        log.info("Cached authentications invalidated for {}", invalidation.subject());
+    }
+}
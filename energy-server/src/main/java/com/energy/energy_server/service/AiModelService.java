@@ -1,7 +1,10 @@
 package com.energy.energy_server.service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import com.energy.energy_server.ai.FeatureWindow;
+import com.energy.energy_server.ai.ModelBundle;
 import com.energy.energy_server.model.EnergyReading;
 import com.energy.energy_server.dto.AiInsightDTO;
 
@@ -12,7 +15,34 @@ public interface AiModelService {
     @PostConstruct
     void init();
 
+    /** Appends the reading to the live feature window; cheap, must be called in ingest order. */
+    FeatureWindow.Snapshot capture(EnergyReading reading);
+
     AiInsightDTO analyze(EnergyReading reading);
 
+    /** Runs inference on a previously captured snapshot; may run later and on another thread. */
+    AiInsightDTO analyze(EnergyReading reading, FeatureWindow.Snapshot features);
+
+    /** A prediction in flight for a captured reading, against the model version that started it. */
+    record PendingAnalysis(EnergyReading reading, FeatureWindow.Snapshot features, ModelBundle bundle,
+                           long startNanos, CompletableFuture<Double> prediction) {}
+
+    /**
+     * First half of {@link #analyze(EnergyReading, FeatureWindow.Snapshot)}: submits the prediction
+     * without waiting for a batched forward pass, so one thread can start several before finishing any.
+     */
+    PendingAnalysis begin(EnergyReading reading, FeatureWindow.Snapshot features);
+
+    /** Waits for the prediction and builds the insight; runs on the caller's thread. */
+    AiInsightDTO finish(PendingAnalysis pending);
+
+    /**
+     * For a reading whose neural check was skipped: reports the actual value to shadow scoring,
+     * without producing an insight. Runs no forward pass itself (the streaming state catches up
+     * lazily, by re-anchoring at the next prediction); true when the shadow thread will run one
+     * for the live model instead, because a candidate version is being evaluated.
+     */
+    boolean observe(EnergyReading reading, FeatureWindow.Snapshot features);
+
     double predictNextHour(List<EnergyReading> history);
 }
\ No newline at end of file
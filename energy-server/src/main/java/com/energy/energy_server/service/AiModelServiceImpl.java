@@ -1,23 +1,18 @@
 package com.energy.energy_server.service;
 
-import java.io.File;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
-import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
-import org.deeplearning4j.util.ModelSerializer;
-import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
-import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
-import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 
-import com.energy.energy_server.ai.ModelConfig;
+import com.energy.energy_server.ai.FeatureWindow;
+import com.energy.energy_server.ai.ModelBundle;
 import com.energy.energy_server.model.EnergyReading;
 import com.energy.energy_server.dto.AiInsightDTO;
-import com.energy.energy_server.repository.EnergyReadingRepository;
+import com.energy.energy_server.service.components.FeatureWindowStore;
+import com.energy.energy_server.service.components.ModelRegistry;
 
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -28,46 +23,65 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class AiModelServiceImpl implements AiModelService {
 
-    // Based on our 3.91 kWh MAE.
-    // We consider an anomaly if deviation > 2.5 * MAE (approx. 99% confidence)
-    private static final double DYNAMIC_MAE_THRESHOLD = 3.91 * 2.5;
-
     private static final String MSG_ANOMALY = "ANOMALY_ALERT: Anomaly detected: consumption deviates from expected pattern.";
     private static final String MSG_NORMAL = "System operating within normal parameters.";
+    private static final String MSG_WARMUP = "AI Warmup: feature window refilling after a gap in the stream.";
 
-    private final EnergyReadingRepository energyReadingRepository;
-
-    private MultiLayerNetwork model;
-    private NormalizerStandardize normalizer;
+    private final FeatureWindowStore featureWindowStore;
+    // Owns the live model version; it may be swapped between two calls
+    private final ModelRegistry modelRegistry;
 
     @PostConstruct
     @Override
     public void init() {
-        try {
-            File modelFile = new File(ModelConfig.MODEL_EXPORT_PATH);
-            File normFile = new File(ModelConfig.NORMALIZER_EXPORT_PATH);
-
-            if (modelFile.exists() && normFile.exists()) {
-                model = ModelSerializer.restoreMultiLayerNetwork(modelFile);
-                normalizer = NormalizerSerializer.getDefault().restore(normFile);
-                log.info("Digital Twin AI Engine initialized with MAE-base: 3.91 kWh");
-            } else {
-                log.warn("AI Assets missing. Models must be trained before inference is available.");
-            }
-        } catch (Exception e) {
-            log.error("Failed to initialize AI Service", e);
+        ModelBundle live = modelRegistry.live();
+        if (live != null) {
+            log.info("NEXUS_AI | AI service bound to model {} [{}]", live.version(), live.describe());
         }
     }
 
+    @Override
+    public FeatureWindow.Snapshot capture(EnergyReading reading) {
+        return featureWindowStore.append(reading);
+    }
+
     @Override
     public AiInsightDTO analyze(EnergyReading reading) {
-        List<EnergyReading> history = energyReadingRepository.findTop100ByOrderByTimestampDesc();
-        double predicted = predictNextHour(history);
+        return analyze(reading, capture(reading));
+    }
+
+    @Override
+    public AiInsightDTO analyze(EnergyReading reading, FeatureWindow.Snapshot features) {
+        return finish(begin(reading, features));
+    }
+
+    @Override
+    public PendingAnalysis begin(EnergyReading reading, FeatureWindow.Snapshot features) {
+        ModelBundle bundle = modelRegistry.live();
+        CompletableFuture<Double> prediction = features == null || bundle == null
+                ? CompletableFuture.completedFuture(0.0)
+                : bundle.predictAsync(features);
+        return new PendingAnalysis(reading, features, bundle, System.nanoTime(), prediction);
+    }
+
+    @Override
+    public AiInsightDTO finish(PendingAnalysis pending) {
+        ModelBundle bundle = pending.bundle();
+        EnergyReading reading = pending.reading();
         double actual = reading.getEnergyConsumption() != null ? reading.getEnergyConsumption() : 0.0;
+        if (pending.features() == null) {
+            // The window was reset (e.g. a backwards timestamp): no prediction to compare against yet
+            return new AiInsightDTO(false, 0.0, actual, 0.0, MSG_WARMUP);
+        }
+        double predicted = predictFrom(pending);
 
-        // Dynamic Threshold Logic: Using absolute error instead of percentage
+        // Dynamic Threshold Logic: Using absolute error instead of percentage.
+        // Based on the live model's holdout MAE (3.91 kWh for the baseline, refreshed by fine-tuning)
+        double threshold = bundle != null
+                ? bundle.anomalyThresholdKwh()
+                : ModelBundle.BASELINE_MAE_KWH * ModelBundle.ANOMALY_MAE_FACTOR;
         double absoluteDeviation = actual - predicted;
-        boolean isAnomaly = Math.abs(absoluteDeviation) > DYNAMIC_MAE_THRESHOLD;
+        boolean isAnomaly = Math.abs(absoluteDeviation) > threshold;
 
         // Anomaly message
         if (isAnomaly) {
@@ -89,7 +103,7 @@ public class AiModelServiceImpl implements AiModelService {
             log.info("{} | Deviation: {}%", MSG_NORMAL, String.format("%.2f", absoluteDeviation));
         }
     
-        String suggestion = generateSmartSuggestion(reading, actual, predicted, absoluteDeviation);
+        String suggestion = generateSmartSuggestion(reading, actual, predicted, absoluteDeviation, threshold);
     
         return new AiInsightDTO(
             isAnomaly,
@@ -100,8 +114,16 @@ public class AiModelServiceImpl implements AiModelService {
         );
     }
 
-    private String generateSmartSuggestion(EnergyReading r, double actual, double predicted, double dev) {
-        if (dev > DYNAMIC_MAE_THRESHOLD && r.getOccupancy() < 5) {
+    @Override
+    public boolean observe(EnergyReading reading, FeatureWindow.Snapshot features) {
+        if (modelRegistry.live() == null || features == null) {
+            return false;
+        }
+        return modelRegistry.recordLive(reading, features, Double.NaN, 0L);
+    }
+
+    private String generateSmartSuggestion(EnergyReading r, double actual, double predicted, double dev, double threshold) {
+        if (dev > threshold && r.getOccupancy() < 5) {
             return "Critical: High energy drain in an empty building. Potential HVAC override or lighting failure.";
         }
         if (r.getRenewableEnergy() > 50 && actual > predicted) {
@@ -112,54 +134,40 @@ public class AiModelServiceImpl implements AiModelService {
 
     @Override
     public double predictNextHour(List<EnergyReading> history) {
-        if (model == null || normalizer == null || history.size() < ModelConfig.TIME_STEPS) {
+        ModelBundle bundle = modelRegistry.live();
+        // history is DESC (0 is most recent), as the live window is built from it at startup
+        FeatureWindow.Snapshot features = FeatureWindowStore.windowOf(history);
+        if (bundle == null || features == null) {
             return 0.0;
         }
-
         try {
-            int steps = ModelConfig.TIME_STEPS;
-            // IMPORTANT: Shape must match [1, 6, 12] as per our "Gold" model
-            INDArray input = Nd4j.create(new int[]{1, ModelConfig.INPUT_FEATURES, steps}, 'c');
-
-            for (int t = 0; t < steps; t++) {
-                // history is DESC (0 is most recent). Map t=0 to oldest in window.
-                EnergyReading r = history.get(steps - 1 - t);
-                // Feature Engineering (Synchronized with Train.java)
-                double temp = r.getTemperature() != null ? r.getTemperature() : 0.0;
-                double occ = r.getOccupancy() != null ? r.getOccupancy() : 0.0;
-                double hvac = "ON".equalsIgnoreCase(r.getHvacUsage()) ? 1.0 : 0.0;
-                // Lag1h (Consumption of previous record)
-                double lag = 0.0;
-                if ((steps - 1 - t + 1) < history.size()) {
-                    lag = history.get(steps - t).getEnergyConsumption();
-                }
-
-                // Time Cyclical Features
-                LocalDateTime ldt = r.getTimestamp().atZone(ZoneId.systemDefault()).toLocalDateTime();
-                int hour = ldt.getHour();
-                double hSin = Math.sin(2 * Math.PI * hour / 24.0);
-                double hCos = Math.cos(2 * Math.PI * hour / 24.0);
-
-                input.putScalar(new int[]{0, 0, t}, temp);
-                input.putScalar(new int[]{0, 1, t}, occ);
-                input.putScalar(new int[]{0, 2, t}, hvac);
-                input.putScalar(new int[]{0, 3, t}, lag);
-                input.putScalar(new int[]{0, 4, t}, hSin);
-                input.putScalar(new int[]{0, 5, t}, hCos);
-            }
-
-            normalizer.transform(input);
-            INDArray output = model.output(input);
-            // Revert labels manually (output is [1, 1, 12])
-            double normPred = output.getDouble(0, 0, steps - 1);
-            double mean = normalizer.getLabelMean().getDouble(0);
-            double std = normalizer.getLabelStd().getDouble(0);
-            return Math.max(0.0, (normPred * std) + mean);
-
+            return bundle.predictWindow(features.window());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0.0;
         } catch (Exception e) {
             log.error("Inference Error", e);
             return 0.0;
         }
     }
 
-}
\ No newline at end of file
+    /** Waits for the live model's prediction and hands it to the shadow evaluation. */
+    private double predictFrom(PendingAnalysis pending) {
+        if (pending.features() == null || pending.bundle() == null) {
+            return 0.0;
+        }
+        try {
+            double predicted = pending.prediction().get();
+            modelRegistry.recordLive(pending.reading(), pending.features(), predicted,
+                    System.nanoTime() - pending.startNanos());
+            return predicted;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0.0;
+        } catch (ExecutionException e) {
+            log.error("Inference Error", e.getCause());
+            return 0.0;
+        }
+    }
+
+}
@@ -1,5 +1,14 @@
 package com.energy.energy_server.service;
 
+import com.energy.energy_server.dto.AnomalyBackfillStatusDTO;
+import com.energy.energy_server.dto.ForecastDTO;
+import com.energy.energy_server.dto.InferenceStatsDTO;
+import com.energy.energy_server.dto.ModelRegistryStatusDTO;
+import com.energy.energy_server.dto.PreFilterStatsDTO;
+import com.energy.energy_server.dto.ScenarioRequestDTO;
+import com.energy.energy_server.dto.ScenarioResponseDTO;
+import com.energy.energy_server.dto.ReplayStreamDTO;
+import com.energy.energy_server.dto.StreamEventDTO;
 import com.energy.energy_server.dto.SystemReportDTO;
 import com.energy.energy_server.dto.WeeklyStatsDTO;
 import com.energy.energy_server.model.EnergyReading;
@@ -13,6 +22,8 @@ public interface EnergySystemFacade {
 
     void handleDatasetUpload(MultipartFile file) throws IOException;
 
+    String loadSyntheticDataset(long seed, int rows);
+
     void startSimulation();
 
     void stopSimulation();
@@ -21,11 +32,45 @@ public interface EnergySystemFacade {
 
     List<WeeklyStatsDTO> getWeeklyTrends();
 
-    SseEmitter subscribe();
+    SseEmitter subscribe(Double maxRate, String lastEventId);
 
     void clearAllData();
 
     void onTelemetryUpdate(EnergyReading reading);
 
+    void onStreamEvent(StreamEventDTO event);
+
     boolean isSimulationRunning();
+
+    ReplayStreamDTO startReplayStream(String datasetId, double speed, boolean publishEvents) throws IOException;
+
+    List<ReplayStreamDTO> getReplayStreams();
+
+    ReplayStreamDTO pauseReplayStream(String streamId);
+
+    ReplayStreamDTO resumeReplayStream(String streamId);
+
+    ReplayStreamDTO stopReplayStream(String streamId);
+
+    InferenceStatsDTO getInferenceStats();
+
+    PreFilterStatsDTO getPreFilterStats();
+
+    ModelRegistryStatusDTO getModelRegistryStatus();
+
+    ModelRegistryStatusDTO promoteCandidateModel();
+
+    ModelRegistryStatusDTO rejectCandidateModel();
+
+    boolean triggerFineTuning();
+
+    ScenarioResponseDTO runScenarios(ScenarioRequestDTO request);
+
+    ForecastDTO getForecast(Integer hours);
+
+    AnomalyBackfillStatusDTO startAnomalyBackfill();
+
+    AnomalyBackfillStatusDTO getAnomalyBackfillStatus();
+
+    AnomalyBackfillStatusDTO cancelAnomalyBackfill();
 }
\ No newline at end of file
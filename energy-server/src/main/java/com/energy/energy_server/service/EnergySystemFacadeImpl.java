@@ -1,12 +1,23 @@
 package com.energy.energy_server.service;
 
 import com.energy.energy_server.dto.AiInsightDTO;
+import com.energy.energy_server.dto.AnomalyBackfillStatusDTO;
+import com.energy.energy_server.dto.ForecastDTO;
+import com.energy.energy_server.dto.InferenceStatsDTO;
+import com.energy.energy_server.dto.ModelRegistryStatusDTO;
+import com.energy.energy_server.dto.PreFilterStatsDTO;
+import com.energy.energy_server.dto.ScenarioRequestDTO;
+import com.energy.energy_server.dto.ScenarioResponseDTO;
+import com.energy.energy_server.dto.ReplayStreamDTO;
+import com.energy.energy_server.dto.StreamEventDTO;
 import com.energy.energy_server.dto.SystemReportDTO;
 import com.energy.energy_server.dto.WeeklyStatsDTO;
 import com.energy.energy_server.model.EnergyReading;
+import com.energy.energy_server.repository.AnomalyLabelRepository;
 import com.energy.energy_server.repository.EnergyReadingRepository;
 import com.energy.energy_server.service.components.*;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -17,7 +28,10 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
@@ -26,20 +40,43 @@ public class EnergySystemFacadeImpl implements EnergySystemFacade {
 
     private final IngestionService ingestionService;
     private final SimulationService simulationService;
+    private final SimulationLeaseService simulationLeaseService;
+    private final ReplayEngine replayEngine;
     private final AnalyticsService analyticsService;
-    private final AiModelService aiModelService;
+    private final FeatureWindowStore featureWindowStore;
+    private final InferenceWorkerPool inferenceWorkerPool;
+    private final AnomalyPreFilter anomalyPreFilter;
+    private final ModelRegistry modelRegistry;
+    private final ModelFineTuner modelFineTuner;
+    private final ScenarioService scenarioService;
+    private final ForecastService forecastService;
+    private final AnomalyBackfillService anomalyBackfillService;
     private final EnergyReadingRepository energyReadingRepository;
+    private final AnomalyLabelRepository anomalyLabelRepository;
+    private final StreamBroadcaster streamBroadcaster;
+    private final TelemetryFanout telemetryFanout;
+    private final ClusterNode clusterNode;
 
     private volatile SystemReportDTO lastSnapshot;
 
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final AtomicLong eventSequence = new AtomicLong(0);
+    private final AtomicLong lastReportedReadingId = new AtomicLong(0);
+
+    // Reports are built off the inference workers (generateReport reads the whole table)
+    private final ExecutorService reportExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     private static final int BURST_SIZE = 12;
 
     @PostConstruct
     public void init() {
-        log.info("NEXUS_CORE | System Startup: Purging old telemetry");
-        energyReadingRepository.deleteAllInBatch();
+        // Clustered replicas share the table with a leader that may be replaying right now
+        // (and resumes from it after a takeover): only a single node starts from scratch
+        if (!simulationLeaseService.isEnabled()) {
+            log.info("NEXUS_CORE | System Startup: Purging old telemetry");
+            energyReadingRepository.deleteAllInBatch();
+            // Labels are kept across restarts; they go only with the readings they describe
+            anomalyLabelRepository.deleteAllInBatch();
+        }
         analyticsService.clearHistory();
         this.lastSnapshot = new SystemReportDTO(
                 new SystemReportDTO.StatsDTO(0, 0, 0, 0),
@@ -48,24 +85,37 @@ public class EnergySystemFacadeImpl implements EnergySystemFacade {
         );
     }
 
+    @PreDestroy
+    public void shutdown() {
+        reportExecutor.shutdown();
+    }
+
     @Override
     public void handleDatasetUpload(MultipartFile file) throws IOException {
         try {
-            ingestionService.handleUpload(file);
+            String datasetId = ingestionService.handleUpload(file);
+            simulationLeaseService.assignDataset(datasetId);
         } catch (Exception e) {
             throw new IOException("Dataset ingestion rejected", e);
         }
     }
 
+    @Override
+    public String loadSyntheticDataset(long seed, int rows) {
+        String datasetId = ingestionService.loadSynthetic(seed, rows);
+        simulationLeaseService.assignDataset(datasetId);
+        return datasetId;
+    }
+
     @Override
     public void startSimulation() {
-        simulationService.start();
+        simulationLeaseService.requestStart();
         broadcastStatus("STREAMING");
     }
 
     @Override
     public void stopSimulation() {
-        simulationService.stop();
+        simulationLeaseService.requestStop();
         broadcastStatus("IDLE");
     }
 
@@ -74,21 +124,45 @@ public class EnergySystemFacadeImpl implements EnergySystemFacade {
     public void onTelemetryUpdate(EnergyReading reading) {
 
         try {
-            // Process AI insights (Digital Twin comparison)
-            AiInsightDTO insights = getAiInsightsSafe(reading);
+            // Process AI insights (Digital Twin comparison); the report follows when they are ready
+            getAiInsightsSafe(reading).thenAcceptAsync(insights -> publishReport(reading, insights), reportExecutor);
+            forecastService.onReading();
+
+        } catch (Exception e) {
+            log.error("NEXUS_CORE | Failed to process telemetry update: {}", e.getMessage());
+        }
+    }
+
+    private void publishReport(EnergyReading reading, AiInsightDTO insights) {
+        try {
+            // Insights may finish out of order; a report older than the last one adds nothing
+            long readingId = reading.getId() != null ? reading.getId() : 0L;
+            if (lastReportedReadingId.getAndAccumulate(readingId, Math::max) > readingId) {
+                return;
+            }
 
             // Prepare the comprehensive status report
             SystemReportDTO report = analyticsService.generateReport(reading, insights);
-            this.lastSnapshot = report;
 
-            // Push data to active dashboard subscribers
-            broadcast(report);
+            // Fan out to every replica; each hands it to its coalescing broadcaster
+            telemetryFanout.publish(StreamEventDTO.ofReport(clusterNode.getNodeId(), nextEventId(), report));
 
         } catch (Exception e) {
             log.error("NEXUS_CORE | Failed to process telemetry update: {}", e.getMessage());
         }
     }
 
+    @EventListener
+    @Override
+    public void onStreamEvent(StreamEventDTO event) {
+        if (event.status() != null) {
+            streamBroadcaster.publishStatus(event.status());
+        } else if (event.report() != null) {
+            this.lastSnapshot = event.report();
+            streamBroadcaster.publish(event.report());
+        }
+    }
+
     @Override
     public SystemReportDTO getCurrentStatus() {
         return this.lastSnapshot;
@@ -100,64 +174,104 @@ public class EnergySystemFacadeImpl implements EnergySystemFacade {
     }
 
     @Override
-    public SseEmitter subscribe() {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitters.add(emitter);
-        return emitter;
+    public SseEmitter subscribe(Double maxRate, String lastEventId) {
+        return streamBroadcaster.subscribe(maxRate, lastEventId);
     }
 
-    private void broadcast(SystemReportDTO payload) {
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(SseEmitter.event().name("update").data(payload));
-            } catch (Exception e) {
-                emitters.remove(emitter);
-            }
-        }
+    private void broadcastStatus(String status) {
+        telemetryFanout.publish(StreamEventDTO.ofStatus(clusterNode.getNodeId(), nextEventId(), status));
     }
 
-    private void broadcastStatus(String status) {
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(SseEmitter.event().name("status").data(status));
-            } catch (Exception e) {
-                emitters.remove(emitter);
-            }
-        }
+    private String nextEventId() {
+        return clusterNode.getNodeId() + "-" + eventSequence.incrementAndGet();
     }
 
-    private AiInsightDTO getAiInsightsSafe(EnergyReading reading) {
+    private CompletableFuture<AiInsightDTO> getAiInsightsSafe(EnergyReading reading) {
         if (reading == null || reading.getId() == null) {
-            return new AiInsightDTO(false, 0.0, 0.0, 0.0, "Waiting for data...");
+            return CompletableFuture.completedFuture(new AiInsightDTO(false, 0.0, 0.0, 0.0, "Waiting for data..."));
         }
 
         long recordCount = energyReadingRepository.count();
         if (recordCount < BURST_SIZE) {
-            return new AiInsightDTO(
+            return CompletableFuture.completedFuture(new AiInsightDTO(
                     false,
                     0.0,
                     0.0,
                     0.0,
                     String.format("AI Warmup: %d/%d records", recordCount, BURST_SIZE)
-            );
+            ));
         }
 
-        try {
-            return aiModelService.analyze(reading);
-        } catch (Exception e) {
-            log.warn("AI Analysis unavailable: {}", e.getMessage());
-            return new AiInsightDTO(false, 0.0, 0.0, 0.0, "AI Module Offline");
-        }
+        // Inference runs on the worker pool; degraded insight on backlog or timeout
+        return inferenceWorkerPool.analyze(reading);
+    }
+
+    @Override
+    public InferenceStatsDTO getInferenceStats() {
+        return inferenceWorkerPool.getStats();
+    }
+
+    @Override
+    public PreFilterStatsDTO getPreFilterStats() {
+        return anomalyPreFilter.getStats();
+    }
+
+    @Override
+    public ModelRegistryStatusDTO getModelRegistryStatus() {
+        return modelRegistry.status();
+    }
+
+    @Override
+    public ModelRegistryStatusDTO promoteCandidateModel() {
+        return modelRegistry.promote();
+    }
+
+    @Override
+    public ModelRegistryStatusDTO rejectCandidateModel() {
+        return modelRegistry.reject();
+    }
+
+    @Override
+    public boolean triggerFineTuning() {
+        return modelFineTuner.trigger();
+    }
+
+    @Override
+    public ScenarioResponseDTO runScenarios(ScenarioRequestDTO request) {
+        return scenarioService.evaluate(request);
+    }
+
+    @Override
+    public ForecastDTO getForecast(Integer hours) {
+        return forecastService.forecast(hours);
+    }
+
+    @Override
+    public AnomalyBackfillStatusDTO startAnomalyBackfill() {
+        return anomalyBackfillService.start();
+    }
+
+    @Override
+    public AnomalyBackfillStatusDTO getAnomalyBackfillStatus() {
+        return anomalyBackfillService.status();
+    }
+
+    @Override
+    public AnomalyBackfillStatusDTO cancelAnomalyBackfill() {
+        return anomalyBackfillService.cancel();
     }
 
     @Override
     public void clearAllData() {
-        simulationService.stop();
+        simulationLeaseService.requestStop();
         broadcastStatus("IDLE");
+        anomalyBackfillService.cancel();
         energyReadingRepository.deleteAllInBatch();
+        anomalyLabelRepository.deleteAllInBatch();
         analyticsService.clearHistory();
+        featureWindowStore.reset();
+        anomalyPreFilter.reset();
+        lastReportedReadingId.set(0);
 
         this.lastSnapshot = new SystemReportDTO(
                 new SystemReportDTO.StatsDTO(0.0, 0.0, 0.0, 0),
@@ -174,4 +288,33 @@ public class EnergySystemFacadeImpl implements EnergySystemFacade {
         return simulationService.getIsRunning().get();
     }
 
+    @Override
+    public ReplayStreamDTO startReplayStream(String datasetId, double speed, boolean publishEvents) throws IOException {
+        String source = (datasetId == null || datasetId.isBlank()) ? simulationService.getDatasetId() : datasetId;
+        if (source == null) {
+            throw new IllegalArgumentException("No dataset loaded: upload a CSV or pass a datasetId");
+        }
+        return replayEngine.startStream(ingestionService.loadStoredDataset(source), speed, publishEvents);
+    }
+
+    @Override
+    public List<ReplayStreamDTO> getReplayStreams() {
+        return replayEngine.listStreams();
+    }
+
+    @Override
+    public ReplayStreamDTO pauseReplayStream(String streamId) {
+        return replayEngine.pause(streamId);
+    }
+
+    @Override
+    public ReplayStreamDTO resumeReplayStream(String streamId) {
+        return replayEngine.resume(streamId);
+    }
+
+    @Override
+    public ReplayStreamDTO stopReplayStream(String streamId) {
+        return replayEngine.stop(streamId);
+    }
+
 }
\ No newline at end of file
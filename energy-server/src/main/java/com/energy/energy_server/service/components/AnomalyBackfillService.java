@@ -0,0 +1,305 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.ai.FeatureEngine;
+import com.energy.energy_server.ai.ModelBundle;
+import com.energy.energy_server.ai.ModelConfig;
+import com.energy.energy_server.dto.AnomalyBackfillStatusDTO;
+import com.energy.energy_server.model.EnergyReading;
+import com.energy.energy_server.repository.EnergyReadingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Labels stored readings with the live model's anomaly verdict, for history that was never
+ * analyzed live (bulk imports) or was analyzed by an older model.
+ *
+ * <p>One reader thread scans {@code energy_readings} in time order with keyset pages of
+ * {@code ai.backfill.chunk-rows}; each chunk is prefixed with the last {@code TIME_STEPS}
+ * readings of the previous one, so every reading gets its full window. A bounded queue feeds
+ * {@code ai.backfill.workers} platform threads, each scoring whole chunks in one forward pass
+ * on its own copy of the network and upserting the results into {@code anomaly_labels} with a
+ * JDBC batch. Reading i is labeled with the prediction of the window of the readings before it.
+ */
+@Slf4j
+@Service
+public class AnomalyBackfillService {
+
+    private static final int STEPS = ModelConfig.TIME_STEPS;
+    private static final int FEATURES = FeatureEngine.FEATURES;
+    private static final long POLL_MS = 100;
+    private static final int PROGRESS_LOG_CHUNKS = 10;
+
+    private static final String UPSERT = "INSERT INTO anomaly_labels " +
+            "(reading_id, model_version, predicted_kwh, actual_kwh, deviation_kwh, anomaly, labeled_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE model_version = VALUES(model_version), " +
+            "predicted_kwh = VALUES(predicted_kwh), actual_kwh = VALUES(actual_kwh), " +
+            "deviation_kwh = VALUES(deviation_kwh), anomaly = VALUES(anomaly), labeled_at = VALUES(labeled_at)";
+
+    private final EnergyReadingRepository energyReadingRepository;
+    private final ModelRegistry modelRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final int workers;
+    private final int chunkRows;
+
+    private final AtomicReference<Job> current = new AtomicReference<>();
+
+    /**
+     * Consecutive readings; the first {@code context} repeat the tail of the previous chunk.
+     * {@code lagSeed} is the consumption of the reading before the chunk (NaN at the start).
+     */
+    private record Chunk(List<EnergyReading> readings, int context, double lagSeed) {}
+
+    private static final class Job {
+        final String modelVersion;
+        final long total;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final LongAdder scanned = new LongAdder();
+        final LongAdder labeled = new LongAdder();
+        final LongAdder anomalies = new LongAdder();
+        volatile String state = "RUNNING";
+        volatile boolean cancelled;
+        volatile LocalDateTime finishedAt;
+        volatile long finishedNanos;
+        volatile String error;
+
+        Job(String modelVersion, long total) {
+            this.modelVersion = modelVersion;
+            this.total = total;
+        }
+
+        boolean isRunning() {
+            return "RUNNING".equals(state);
+        }
+    }
+
+    public AnomalyBackfillService(EnergyReadingRepository energyReadingRepository,
+                                  ModelRegistry modelRegistry,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${ai.backfill.workers:4}") int workers,
+                                  @Value("${ai.backfill.chunk-rows:2048}") int chunkRows) {
+        this.energyReadingRepository = energyReadingRepository;
+        this.modelRegistry = modelRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.workers = Math.max(1, workers);
+        this.chunkRows = Math.max(STEPS, chunkRows);
+    }
+
+    /** Starts a backfill with the live model in the background. */
+    public AnomalyBackfillStatusDTO start() {
+        ModelBundle bundle = modelRegistry.live();
+        if (bundle == null) {
+            throw new IllegalStateException("AI model not available");
+        }
+        Job previous = current.get();
+        if (previous != null && previous.isRunning()) {
+            throw new IllegalStateException("Anomaly backfill already running");
+        }
+        Job job = new Job(bundle.version(), energyReadingRepository.count());
+        if (!current.compareAndSet(previous, job)) {
+            throw new IllegalStateException("Anomaly backfill already running");
+        }
+        log.info("NEXUS_AI | Anomaly backfill started | Model: {} | Readings: {} | Workers: {} | Chunk: {}",
+                job.modelVersion, job.total, workers, chunkRows);
+        Thread.ofPlatform().daemon().name("nexus-backfill").start(() -> run(job, bundle));
+        return status();
+    }
+
+    /** Stops the running backfill after the chunks in flight; labels written so far are kept. */
+    public AnomalyBackfillStatusDTO cancel() {
+        Job job = current.get();
+        if (job != null && job.isRunning()) {
+            job.cancelled = true;
+        }
+        return status();
+    }
+
+    public AnomalyBackfillStatusDTO status() {
+        Job job = current.get();
+        if (job == null) {
+            return new AnomalyBackfillStatusDTO("IDLE", null, 0, 0, 0, 0, 0.0, null, null, null);
+        }
+        long end = job.isRunning() ? System.nanoTime() : job.finishedNanos;
+        double seconds = (end - job.startNanos) / 1e9;
+        long scanned = job.scanned.sum();
+        return new AnomalyBackfillStatusDTO(job.state, job.modelVersion, job.total, scanned, job.labeled.sum(),
+                job.anomalies.sum(), seconds > 0 ? scanned / seconds : 0.0, job.startedAt, job.finishedAt, job.error);
+    }
+
+    private void run(Job job, ModelBundle bundle) {
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(workers * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                Thread.ofPlatform().daemon().name("nexus-backfill-", 0).factory());
+        double threshold = bundle.anomalyThresholdKwh();
+        List<Future<?>> consumers = new ArrayList<>();
+        try {
+            for (int i = 0; i < workers; i++) {
+                // Own copy per worker: the live network stays free for serving
+                MultiLayerNetwork replica = bundle.copyNetwork();
+                consumers.add(pool.submit(() -> {
+                    consume(job, queue, replica, bundle.normalizer(), threshold);
+                    return null;
+                }));
+            }
+            scan(job, queue);
+            for (Future<?> consumer : consumers) {
+                consumer.get();
+            }
+            finish(job, job.cancelled ? "CANCELLED" : "COMPLETED", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancelled = true;
+            finish(job, "CANCELLED", null);
+        } catch (Exception e) {
+            job.cancelled = true;
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.error("NEXUS_AI | Anomaly backfill failed", cause);
+            finish(job, "FAILED", cause.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Reader: pages through the table in time order and queues overlapping chunks. */
+    private void scan(Job job, BlockingQueue<Chunk> queue) throws InterruptedException {
+        List<EnergyReading> tail = List.of();
+        double lagSeed = Double.NaN;
+        int chunks = 0;
+        List<EnergyReading> page = energyReadingRepository.findByOrderByTimestampAscIdAsc(PageRequest.of(0, chunkRows));
+        while (!page.isEmpty() && !job.cancelled) {
+            List<EnergyReading> readings = new ArrayList<>(tail.size() + page.size());
+            readings.addAll(tail);
+            readings.addAll(page);
+            if (!put(queue, new Chunk(readings, tail.size(), lagSeed), job)) {
+                return;
+            }
+            // The last TIME_STEPS readings are the context of the next chunk
+            int from = Math.max(0, readings.size() - STEPS);
+            if (from > 0) {
+                lagSeed = consumption(readings.get(from - 1));
+            }
+            tail = new ArrayList<>(readings.subList(from, readings.size()));
+
+            if (++chunks % PROGRESS_LOG_CHUNKS == 0) {
+                log.info("NEXUS_AI | Anomaly backfill | {}/{} readings | {} anomalies",
+                        job.scanned.sum(), job.total, job.anomalies.sum());
+            }
+            EnergyReading last = page.get(page.size() - 1);
+            page = energyReadingRepository.findPageAfter(last.getTimestamp(), last.getId(), PageRequest.of(0, chunkRows));
+        }
+        // End of scan: one empty chunk per worker
+        for (int i = 0; i < workers; i++) {
+            if (!put(queue, new Chunk(List.of(), 0, Double.NaN), job)) {
+                return;
+            }
+        }
+    }
+
+    /** Worker: labels chunks until it takes an empty one (end of scan) or the job is cancelled. */
+    private void consume(Job job, BlockingQueue<Chunk> queue, MultiLayerNetwork model,
+                         NormalizerStandardize normalizer, double threshold) throws InterruptedException {
+        while (true) {
+            Chunk chunk = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            if (job.cancelled) {
+                return;
+            }
+            if (chunk == null) {
+                continue;
+            }
+            if (chunk.readings().isEmpty()) {
+                return;
+            }
+            try {
+                label(job, chunk, model, normalizer, threshold);
+            } catch (RuntimeException e) {
+                // Stop the reader and the other workers too
+                job.cancelled = true;
+                throw e;
+            }
+        }
+    }
+
+    private void label(Job job, Chunk chunk, MultiLayerNetwork model, NormalizerStandardize normalizer, double threshold) {
+        List<EnergyReading> readings = chunk.readings();
+        int n = readings.size();
+        float[] rows = new float[n * FEATURES];
+        double[] consumption = new double[n];
+        double previous = chunk.lagSeed();
+        for (int i = 0; i < n; i++) {
+            EnergyReading r = readings.get(i);
+            consumption[i] = consumption(r);
+            FeatureEngine.engineer(
+                    r.getTemperature() != null ? r.getTemperature() : 0.0,
+                    r.getOccupancy() != null ? r.getOccupancy() : 0.0,
+                    r.getLightingUsage(),
+                    Double.isNaN(previous) ? consumption[i] : previous,
+                    r.getTimestamp() != null ? r.getTimestamp().getHour() : 0,
+                    rows, i * FEATURES);
+            previous = consumption[i];
+        }
+
+        // Window k covers readings k .. k + STEPS - 1 and labels reading k + STEPS
+        FeatureEngine.Series series = new FeatureEngine.Series(rows, consumption, n);
+        int count = series.sampleCount();
+        if (count > 0) {
+            double[] predicted = ModelBundle.score(model, normalizer, series.windows(0, count));
+            LocalDateTime labeledAt = LocalDateTime.now();
+            List<Object[]> batch = new ArrayList<>(count);
+            long anomalies = 0;
+            for (int k = 0; k < count; k++) {
+                double actual = series.target(k);
+                double deviation = actual - predicted[k];
+                boolean anomaly = Math.abs(deviation) > threshold;
+                if (anomaly) anomalies++;
+                batch.add(new Object[]{readings.get(k + STEPS).getId(), job.modelVersion, predicted[k], actual,
+                        deviation, anomaly, labeledAt});
+            }
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+            job.labeled.add(count);
+            job.anomalies.add(anomalies);
+        }
+        job.scanned.add(n - chunk.context());
+    }
+
+    /** Queues a chunk, giving up if the job is cancelled while the queue is full. */
+    private static boolean put(BlockingQueue<Chunk> queue, Chunk chunk, Job job) throws InterruptedException {
+        while (!queue.offer(chunk, POLL_MS, TimeUnit.MILLISECONDS)) {
+            if (job.cancelled) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void finish(Job job, String state, String error) {
+        job.finishedNanos = System.nanoTime();
+        job.finishedAt = LocalDateTime.now();
+        job.error = error;
+        job.state = state;
+        log.info("NEXUS_AI | Anomaly backfill {} | {}/{} readings | {} labeled | {} anomalies | {} s",
+                state.toLowerCase(), job.scanned.sum(), job.total, job.labeled.sum(), job.anomalies.sum(),
+                String.format("%.1f", (job.finishedNanos - job.startNanos) / 1e9));
+    }
+
+    private static double consumption(EnergyReading r) {
+        return r.getEnergyConsumption() != null ? r.getEnergyConsumption() : 0.0;
+    }
+}
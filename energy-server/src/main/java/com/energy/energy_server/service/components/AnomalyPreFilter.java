@@ -0,0 +1,159 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.ai.StatisticalDetector;
+import com.energy.energy_server.dto.AiInsightDTO;
+import com.energy.energy_server.dto.PreFilterStatsDTO;
+import com.energy.energy_server.model.EnergyReading;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cheap statistical screen in front of LSTM inference. Every reading is scored against a
+ * {@link StatisticalDetector} baseline for its hour of day; readings within
+ * {@code ai.prefilter.skip-z} standard deviations are obviously normal and skip the neural
+ * check, the rest (and every reading while the baseline warms up) get full inference.
+ *
+ * <p>A random {@code ai.prefilter.audit-rate} share of the skippable readings is checked
+ * anyway: an LSTM anomaly among them is a miss of the filter. For every reading that reaches
+ * the LSTM, the statistical verdict ({@code |z| > ai.prefilter.anomaly-z}) is compared with
+ * the neural one.
+ *
+ * <p>A skip counts as an avoided inference only when no forward pass runs for it anyway:
+ * while a candidate model is shadow-scored, the live model is still scored on skipped readings.
+ */
+@Slf4j
+@Service
+public class AnomalyPreFilter {
+
+    private static final String MSG_SKIPPED = "Within the hourly statistical band: neural check skipped.";
+
+    /**
+     * @param skip  the neural check can be skipped
+     * @param audit skippable, but sampled for a neural check
+     * @param zScore NaN when the reading could not be scored
+     */
+    public record Decision(boolean skip, boolean audit, double zScore, double expectedKwh) {
+
+        static final Decision NEURAL = new Decision(false, false, Double.NaN, 0.0);
+    }
+
+    private final boolean enabled;
+    private final double skipZ;
+    private final double anomalyZ;
+    private final double auditRate;
+    private final StatisticalDetector detector;
+
+    private final LongAdder screened = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder avoided = new LongAdder();
+    private final LongAdder neuralChecks = new LongAdder();
+    private final LongAdder compared = new LongAdder();
+    private final LongAdder agreements = new LongAdder();
+    private final LongAdder audited = new LongAdder();
+    private final LongAdder auditMisses = new LongAdder();
+
+    public AnomalyPreFilter(@Value("${ai.prefilter.enabled:true}") boolean enabled,
+                            @Value("${ai.prefilter.alpha:0.05}") double alpha,
+                            @Value("${ai.prefilter.min-samples:24}") int minSamples,
+                            @Value("${ai.prefilter.skip-z:1.5}") double skipZ,
+                            @Value("${ai.prefilter.anomaly-z:3.0}") double anomalyZ,
+                            @Value("${ai.prefilter.min-std-kwh:0.5}") double minStdKwh,
+                            @Value("${ai.prefilter.audit-rate:0.05}") double auditRate) {
+        this.enabled = enabled;
+        this.skipZ = skipZ;
+        this.anomalyZ = anomalyZ;
+        this.auditRate = auditRate;
+        // Winsorize baseline updates where readings start to count as anomalous
+        this.detector = new StatisticalDetector(alpha, minSamples, anomalyZ, minStdKwh);
+    }
+
+    /** Scores the reading and learns it; call once per reading, in ingest order. */
+    public Decision screen(EnergyReading reading) {
+        if (!enabled || reading.getEnergyConsumption() == null || reading.getTimestamp() == null) {
+            return Decision.NEURAL;
+        }
+        int hour = reading.getTimestamp().getHour();
+        double z;
+        double expected;
+        synchronized (detector) {
+            expected = detector.expected(hour);
+            z = detector.scoreAndUpdate(hour, reading.getEnergyConsumption());
+        }
+        screened.increment();
+        boolean skippable = !Double.isNaN(z) && Math.abs(z) < skipZ;
+        if (skippable && ThreadLocalRandom.current().nextDouble() < auditRate) {
+            return new Decision(false, true, z, expected);
+        }
+        if (skippable) {
+            skipped.increment();
+        }
+        return new Decision(skippable, false, z, expected);
+    }
+
+    /** Insight for a reading whose neural check was skipped: the hourly baseline is the expectation. */
+    public AiInsightDTO skippedInsight(EnergyReading reading, Decision decision) {
+        double actual = reading.getEnergyConsumption();
+        return new AiInsightDTO(false, decision.expectedKwh(), actual, actual - decision.expectedKwh(), MSG_SKIPPED);
+    }
+
+    /** Records a skipped reading for which no forward pass ran at all. */
+    public void recordAvoided() {
+        avoided.increment();
+    }
+
+    /** Records the LSTM verdict of a reading that was screened and then fully analyzed. */
+    public void recordVerdict(Decision decision, boolean lstmAnomaly) {
+        neuralChecks.increment();
+        if (Double.isNaN(decision.zScore())) {
+            return;
+        }
+        compared.increment();
+        if ((Math.abs(decision.zScore()) > anomalyZ) == lstmAnomaly) {
+            agreements.increment();
+        }
+        if (decision.audit()) {
+            audited.increment();
+            if (lstmAnomaly) {
+                auditMisses.increment();
+            }
+        }
+    }
+
+    public void reset() {
+        synchronized (detector) {
+            detector.reset();
+        }
+    }
+
+    public PreFilterStatsDTO getStats() {
+        long screenedCount = screened.sum();
+        long avoidedCount = avoided.sum();
+        long comparedCount = compared.sum();
+        return new PreFilterStatsDTO(
+                enabled,
+                screenedCount,
+                skipped.sum(),
+                avoidedCount,
+                screenedCount == 0 ? 0.0 : (double) avoidedCount / screenedCount,
+                neuralChecks.sum(),
+                comparedCount,
+                comparedCount == 0 ? 0.0 : (double) agreements.sum() / comparedCount,
+                audited.sum(),
+                auditMisses.sum());
+    }
+
+    @Scheduled(fixedRateString = "${ai.inference.stats-log-ms:60000}")
+    public void logStats() {
+        PreFilterStatsDTO stats = getStats();
+        if (stats.screened() == 0) return;
+        log.info("NEXUS_AI | Pre-filter | Screened: {} | Skipped: {} | Inferences avoided: {} ({}%) | Agreement with LSTM: {}% of {} | Audit misses: {}/{}",
+                stats.screened(), stats.skipped(), stats.avoided(), String.format("%.1f", stats.avoidedFraction() * 100),
+                String.format("%.1f", stats.agreementRate() * 100), stats.compared(),
+                stats.auditMisses(), stats.audited());
+    }
+}
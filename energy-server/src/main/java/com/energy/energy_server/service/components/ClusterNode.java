@@ -0,0 +1,27 @@
+package com.energy.energy_server.service.components;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Identity of this replica inside the cluster.
+ * Uses {@code cluster.node-id} when set, otherwise a random id generated at startup.
+ */
+@Slf4j
+@Getter
+@Component
+public class ClusterNode {
+
+    private final String nodeId;
+
+    public ClusterNode(@Value("${cluster.node-id:}") String configuredId) {
+        this.nodeId = (configuredId == null || configuredId.isBlank())
+                ? "node-" + UUID.randomUUID().toString().substring(0, 8)
+                : configuredId;
+        log.info("NEXUS_CLUSTER | Node identity: {}", nodeId);
+    }
+}
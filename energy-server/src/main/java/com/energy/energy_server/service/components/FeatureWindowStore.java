@@ -0,0 +1,137 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.ai.FeatureWindow;
+import com.energy.energy_server.ai.ModelConfig;
+import com.energy.energy_server.model.EnergyReading;
+import com.energy.energy_server.repository.EnergyReadingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Live feature window fed by every persisted reading that reaches the AI pipeline.
+ * The DB is read once, to warm the window at startup; afterwards inference works
+ * from the engineered rows in memory.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeatureWindowStore {
+
+    private final EnergyReadingRepository energyReadingRepository;
+
+    /** A full window and the timestamp of the reading it ends with (null if unknown). */
+    public record Latest(FeatureWindow.Snapshot snapshot, LocalDateTime timestamp) {}
+
+    private final FeatureWindow window = new FeatureWindow();
+    private LocalDateTime lastTimestamp;
+    private boolean warmed;
+
+    /**
+     * Appends {@code reading} and returns a snapshot of the updated window,
+     * or null while fewer than {@code TIME_STEPS} readings are known.
+     */
+    public synchronized FeatureWindow.Snapshot append(EnergyReading reading) {
+        LocalDateTime timestamp = reading.getTimestamp();
+        if (lastTimestamp != null && timestamp != null && timestamp.isBefore(lastTimestamp)) {
+            // Time went backwards (new dataset, replay stream): the old window is unrelated
+            window.reset();
+            log.debug("NEXUS_AI | Feature window reset | {} precedes {}", timestamp, lastTimestamp);
+        }
+        if (!warmed) {
+            warm(reading);
+            warmed = true;
+        }
+        appendRow(window, reading);
+        lastTimestamp = timestamp;
+        return window.snapshot();
+    }
+
+    /** Snapshot of the live window without appending, or null until it has filled up. */
+    public synchronized FeatureWindow.Snapshot current() {
+        return window.snapshot();
+    }
+
+    /**
+     * Live window with the timestamp of its last reading. Before the live window has filled
+     * (e.g. right after startup) one is built from the stored readings; its sequence is the id
+     * of the newest reading and its generation -1. Null if there are not enough readings.
+     */
+    public Latest latest() {
+        synchronized (this) {
+            FeatureWindow.Snapshot live = window.snapshot();
+            if (live != null) {
+                return new Latest(live, lastTimestamp);
+            }
+        }
+        List<EnergyReading> history = energyReadingRepository.findTop100ByOrderByTimestampDesc();
+        FeatureWindow.Snapshot snapshot = windowOf(history);
+        if (snapshot == null) {
+            return null;
+        }
+        EnergyReading newest = history.get(0);
+        return new Latest(new FeatureWindow.Snapshot(snapshot.window(), snapshot.latest(), newest.getId(), -1,
+                snapshot.consumption()), newest.getTimestamp());
+    }
+
+    /**
+     * Window over the newest {@code TIME_STEPS} readings of {@code history} (most recent first,
+     * as the repository returns it), built as the live window would have seen them. Lag1h of its
+     * first row comes from the reading before it, when {@code history} has one.
+     * Null if {@code history} is too short.
+     */
+    public static FeatureWindow.Snapshot windowOf(List<EnergyReading> history) {
+        int steps = ModelConfig.TIME_STEPS;
+        if (history.size() < steps) {
+            return null;
+        }
+        FeatureWindow window = new FeatureWindow();
+        if (steps < history.size()) {
+            window.primeLag(valueOf(history.get(steps).getEnergyConsumption()));
+        }
+        for (int idx = steps - 1; idx >= 0; idx--) {
+            appendRow(window, history.get(idx));
+        }
+        return window.snapshot();
+    }
+
+    public synchronized void reset() {
+        window.reset();
+        lastTimestamp = null;
+    }
+
+    private void warm(EnergyReading current) {
+        List<EnergyReading> history = energyReadingRepository.findTop100ByOrderByTimestampDesc().stream()
+                .filter(r -> r.getCorrelationId() == null || !r.getCorrelationId().equals(current.getCorrelationId()))
+                .toList();
+
+        // Oldest first, leaving room for the current reading to complete the window
+        int seedRows = Math.min(history.size(), ModelConfig.TIME_STEPS - 1);
+        if (seedRows < history.size()) {
+            window.primeLag(valueOf(history.get(seedRows).getEnergyConsumption()));
+        }
+        for (int idx = seedRows - 1; idx >= 0; idx--) {
+            appendRow(window, history.get(idx));
+        }
+        if (seedRows > 0) {
+            lastTimestamp = history.get(0).getTimestamp();
+        }
+        log.info("NEXUS_AI | Feature window warmed with {} stored readings", seedRows);
+    }
+
+    private static void appendRow(FeatureWindow window, EnergyReading r) {
+        window.append(
+                valueOf(r.getTemperature()),
+                r.getOccupancy() != null ? r.getOccupancy() : 0.0,
+                r.getLightingUsage(),
+                valueOf(r.getEnergyConsumption()),
+                r.getTimestamp() != null ? r.getTimestamp().getHour() : 0);
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
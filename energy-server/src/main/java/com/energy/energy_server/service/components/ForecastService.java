@@ -0,0 +1,172 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.ai.FeatureEngine;
+import com.energy.energy_server.ai.FeatureWindow;
+import com.energy.energy_server.ai.ModelBundle;
+import com.energy.energy_server.dto.ForecastDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Multi-hour consumption forecast rolled forward autoregressively from the live feature window:
+ * each step scores the window on the live model, then shifts it one hour with the prediction as
+ * the next Lag1h and the last known conditions held constant.
+ *
+ * <p>One forecast is cached per (model version, window position), i.e. per latest reading, and
+ * shared by every dashboard asking in between; concurrent misses wait for a single rollout.
+ * While forecasts are being requested, each new reading re-rolls the forecast in the background
+ * so polls keep hitting the cache.
+ */
+@Slf4j
+@Service
+public class ForecastService {
+
+    private final FeatureWindowStore featureWindowStore;
+    private final ModelRegistry modelRegistry;
+    private final int defaultHorizon;
+    private final int maxHorizon;
+    private final long refreshWindowMs;
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("nexus-forecast").factory());
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final Object rolloutLock = new Object();
+
+    private volatile Forecast latest;
+    private volatile long lastRequestMillis;
+
+    private record Forecast(String modelVersion, long generation, long sequence, LocalDateTime origin,
+                            double[] hourlyKwh, double computeMs) {
+
+        boolean covers(ModelBundle bundle, FeatureWindow.Snapshot window, int hours) {
+            return modelVersion.equals(bundle.version()) && generation == window.generation()
+                    && sequence == window.sequence() && hourlyKwh.length >= hours;
+        }
+    }
+
+    public ForecastService(FeatureWindowStore featureWindowStore,
+                           ModelRegistry modelRegistry,
+                           @Value("${ai.forecast.horizon-hours:24}") int defaultHorizon,
+                           @Value("${ai.forecast.max-horizon-hours:72}") int maxHorizon,
+                           @Value("${ai.forecast.refresh-window-ms:300000}") long refreshWindowMs) {
+        this.featureWindowStore = featureWindowStore;
+        this.modelRegistry = modelRegistry;
+        this.maxHorizon = Math.max(1, maxHorizon);
+        this.defaultHorizon = Math.min(Math.max(1, defaultHorizon), this.maxHorizon);
+        this.refreshWindowMs = refreshWindowMs;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /** Forecast for the next {@code hours} hours (default horizon if null) from the latest reading. */
+    public ForecastDTO forecast(Integer hours) {
+        int horizon = hours != null ? hours : defaultHorizon;
+        if (horizon < 1 || horizon > maxHorizon) {
+            throw new IllegalArgumentException("hours must be between 1 and " + maxHorizon);
+        }
+        lastRequestMillis = System.currentTimeMillis();
+
+        ModelBundle bundle = modelRegistry.live();
+        if (bundle == null) {
+            throw new IllegalStateException("AI model not available");
+        }
+        FeatureWindowStore.Latest window = featureWindowStore.latest();
+        if (window == null) {
+            throw new IllegalStateException("Not enough readings to build a feature window");
+        }
+
+        Forecast rolled = refresh(bundle, window, horizon);
+        Forecast forecast = rolled != null ? rolled : latest;
+        return toDto(forecast, Math.min(horizon, forecast.hourlyKwh().length), rolled == null);
+    }
+
+    /**
+     * Called once a reading has reached the feature window. While dashboards have asked for a
+     * forecast within {@code ai.forecast.refresh-window-ms}, the forecast is re-rolled off the
+     * request path; readings arriving during a rollout coalesce into the next one.
+     */
+    public void onReading() {
+        if (System.currentTimeMillis() - lastRequestMillis > refreshWindowMs) {
+            return;
+        }
+        if (!refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.execute(() -> {
+            refreshPending.set(false);
+            try {
+                ModelBundle bundle = modelRegistry.live();
+                FeatureWindowStore.Latest window = featureWindowStore.latest();
+                if (bundle != null && window != null) {
+                    Forecast previous = latest;
+                    refresh(bundle, window, Math.max(defaultHorizon, previous != null ? previous.hourlyKwh().length : 0));
+                }
+            } catch (Exception e) {
+                log.warn("NEXUS_AI | Forecast refresh failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    /** Rolls and caches a new forecast, or returns null when the cached one already covers the request. */
+    private Forecast refresh(ModelBundle bundle, FeatureWindowStore.Latest window, int horizon) {
+        Forecast cached = latest;
+        if (cached != null && cached.covers(bundle, window.snapshot(), horizon)) {
+            return null;
+        }
+        synchronized (rolloutLock) {
+            cached = latest;
+            if (cached != null && cached.covers(bundle, window.snapshot(), horizon)) {
+                return null;
+            }
+            Forecast forecast = rollout(bundle, window, Math.max(horizon, defaultHorizon));
+            latest = forecast;
+            log.debug("NEXUS_AI | Forecast rolled | {} h from {} in {} ms", forecast.hourlyKwh().length,
+                    forecast.origin(), String.format("%.2f", forecast.computeMs()));
+            return forecast;
+        }
+    }
+
+    private static Forecast rollout(ModelBundle bundle, FeatureWindowStore.Latest latest, int hours) {
+        long start = System.nanoTime();
+        FeatureWindow.Snapshot base = latest.snapshot();
+        float[] window = base.window().clone();
+        int hour = FeatureEngine.lastHour(window);
+        double lag = base.consumption();
+        double[] hourly = new double[hours];
+        for (int h = 0; h < hours; h++) {
+            hourly[h] = bundle.predictWindows(window, 1)[0];
+            hour = (hour + 1) % 24;
+            if (h < hours - 1) {
+                FeatureEngine.rollWindow(window, 0, lag, hour);
+                lag = hourly[h];
+            }
+        }
+        return new Forecast(bundle.version(), base.generation(), base.sequence(), latest.timestamp(), hourly,
+                (System.nanoTime() - start) / 1e6);
+    }
+
+    private static ForecastDTO toDto(Forecast forecast, int horizon, boolean cached) {
+        List<ForecastDTO.PointDTO> points = new ArrayList<>(horizon);
+        double total = 0;
+        for (int h = 0; h < horizon; h++) {
+            double kwh = forecast.hourlyKwh()[h];
+            LocalDateTime timestamp = forecast.origin() != null ? forecast.origin().plusHours(h + 1) : null;
+            points.add(new ForecastDTO.PointDTO(timestamp, kwh));
+            total += kwh;
+        }
+        return new ForecastDTO(forecast.modelVersion(), forecast.origin(), horizon, points, total, cached,
+                cached ? 0.0 : forecast.computeMs());
+    }
+}
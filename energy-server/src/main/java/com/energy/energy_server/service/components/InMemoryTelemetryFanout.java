@@ -0,0 +1,24 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.dto.StreamEventDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single-node stand-in for the broker: events are delivered in-process only.
+ * Used for local runs and tests without RabbitMQ.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stream.fanout.mode", havingValue = "local", matchIfMissing = true)
+public class InMemoryTelemetryFanout implements TelemetryFanout {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(StreamEventDTO event) {
+        eventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,259 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.ai.FeatureWindow;
+import com.energy.energy_server.dto.AiInsightDTO;
+import com.energy.energy_server.dto.InferenceStatsDTO;
+import com.energy.energy_server.model.EnergyReading;
+import com.energy.energy_server.service.AiModelService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs AI analysis off the ingest path, on a fixed set of platform threads
+ * (ND4J native calls would pin the carrier of a virtual thread).
+ *
+ * <p>The feature window is still updated on the caller's thread, in ingest order; only
+ * inference is queued and the caller gets a future, so ingestion never waits for it. The queue
+ * is bounded: when it is full the oldest pending job is shed in favour of the newest reading,
+ * and a job not finished within the deadline completes with a degraded insight.
+ *
+ * <p>A worker takes every queued job up to one micro-batch, starts all their predictions and
+ * only then waits, so concurrent readings share a batched forward pass instead of each worker
+ * paying the batcher's wait for a batch of one.
+ *
+ * <p>Readings the {@link AnomalyPreFilter} finds obviously normal are answered from the
+ * statistical baseline at once and never queued; they are only reported to shadow scoring, so
+ * the comparison sees every actual value. The streaming state is not stepped for them: it
+ * re-anchors on the full window at the next neural check.
+ */
+@Slf4j
+@Service
+public class InferenceWorkerPool {
+
+    private final AiModelService aiModelService;
+    private final AnomalyPreFilter anomalyPreFilter;
+    private final int workers;
+    private final int queueCapacity;
+    private final int drainMax;
+    private final long deadlineMs;
+
+    private final BlockingQueue<Job> queue;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    // Max latency since the last stats log
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    // Jobs taken off the queue by a worker and not finished yet
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private record Job(EnergyReading reading, FeatureWindow.Snapshot features, long enqueuedNanos,
+                       CompletableFuture<AiInsightDTO> result) {}
+
+    public InferenceWorkerPool(AiModelService aiModelService,
+                               AnomalyPreFilter anomalyPreFilter,
+                               @Value("${ai.inference.workers:2}") int workers,
+                               @Value("${ai.inference.queue-capacity:64}") int queueCapacity,
+                               @Value("${ai.inference.batch.max-size:32}") int batchMaxSize,
+                               @Value("${ai.inference.deadline-ms:500}") long deadlineMs) {
+        this.aiModelService = aiModelService;
+        this.anomalyPreFilter = anomalyPreFilter;
+        this.workers = Math.max(1, workers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.drainMax = Math.max(1, batchMaxSize);
+        this.deadlineMs = deadlineMs;
+        this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofPlatform().daemon().name("nexus-inference-" + i).start(this::workerLoop));
+        }
+        log.info("NEXUS_AI | Inference pool started | Workers: {} | Queue: {} | Deadline: {} ms",
+                workers, queueCapacity, deadlineMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        List<Job> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(job -> job.result().cancel(false));
+    }
+
+    /**
+     * Captures the reading into the feature window and queues inference without waiting for it.
+     * The future never completes exceptionally: shed, late and failed jobs yield a degraded insight.
+     */
+    public CompletableFuture<AiInsightDTO> analyze(EnergyReading reading) {
+        FeatureWindow.Snapshot features = aiModelService.capture(reading);
+        AnomalyPreFilter.Decision decision = anomalyPreFilter.screen(reading);
+        if (features == null) {
+            // Window refilling after a reset: a warm-up insight, nothing to infer or compare
+            return CompletableFuture.completedFuture(aiModelService.analyze(reading, null));
+        }
+        if (decision.skip()) {
+            // No neural check; only an inference the shadow thread will not run instead is avoided
+            if (!observe(reading, features)) {
+                anomalyPreFilter.recordAvoided();
+            }
+            return CompletableFuture.completedFuture(anomalyPreFilter.skippedInsight(reading, decision));
+        }
+        Job job = new Job(reading, features, System.nanoTime(), new CompletableFuture<>());
+        submitted.increment();
+        enqueue(job);
+
+        // A worker that has not started the job by the deadline skips it
+        return job.result().orTimeout(deadlineMs, TimeUnit.MILLISECONDS).handle((insight, error) -> {
+            if (error == null) {
+                anomalyPreFilter.recordVerdict(decision, insight.anomalyDetected());
+                return insight;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                timedOut.increment();
+                return degraded(reading, "AI Degraded: analysis timed out");
+            }
+            if (cause instanceof CancellationException) {
+                return degraded(reading, "AI Degraded: skipped under inference backlog");
+            }
+            return degraded(reading, "AI Module Offline");
+        });
+    }
+
+    /** Readings waiting for or in inference right now; zero only when the pool is idle. */
+    public int load() {
+        return queue.size() + inFlight.get();
+    }
+
+    public InferenceStatsDTO getStats() {
+        long done = completed.sum();
+        return new InferenceStatsDTO(
+                workers,
+                queueCapacity,
+                queue.size(),
+                inFlight.get(),
+                submitted.sum(),
+                done,
+                shed.sum(),
+                timedOut.sum(),
+                failed.sum(),
+                done == 0 ? 0.0 : latencyNanos.sum() / 1e6 / done,
+                maxLatencyNanos.get() / 1e6);
+    }
+
+    @Scheduled(fixedRateString = "${ai.inference.stats-log-ms:60000}")
+    public void logStats() {
+        InferenceStatsDTO stats = getStats();
+        if (stats.submitted() == 0) return;
+        log.info("NEXUS_AI | Inference pool | Depth: {}/{} | Submitted: {} | Completed: {} | Shed: {} | Timed out: {} | Failed: {} | Avg: {} ms | Max: {} ms",
+                stats.queueDepth(), stats.queueCapacity(), stats.submitted(), stats.completed(), stats.shed(),
+                stats.timedOut(), stats.failed(),
+                String.format("%.2f", stats.avgLatencyMs()), String.format("%.2f", stats.maxLatencyMs()));
+        maxLatencyNanos.set(0);
+    }
+
+    /** Skip-to-latest: while the queue is full, the oldest pending job makes room for this one. */
+    private void enqueue(Job job) {
+        while (!queue.offer(job)) {
+            Job oldest = queue.poll();
+            if (oldest != null && oldest.result().cancel(false)) {
+                shed.increment();
+            }
+        }
+    }
+
+    private void workerLoop() {
+        List<Job> jobs = new ArrayList<>(drainMax);
+        List<AiModelService.PendingAnalysis> started = new ArrayList<>(drainMax);
+        while (running) {
+            try {
+                jobs.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(jobs, drainMax - 1);
+            inFlight.addAndGet(jobs.size());
+            // Submit every prediction before waiting on any, so the run shares one forward pass
+            for (Job job : jobs) {
+                started.add(job.result().isDone() ? null : begin(job)); // null: caller already gave up
+            }
+            for (int i = 0; i < jobs.size(); i++) {
+                if (started.get(i) != null) {
+                    finish(jobs.get(i), started.get(i));
+                }
+            }
+            inFlight.addAndGet(-jobs.size());
+            jobs.clear();
+            started.clear();
+        }
+    }
+
+    private boolean observe(EnergyReading reading, FeatureWindow.Snapshot features) {
+        try {
+            return aiModelService.observe(reading, features);
+        } catch (Exception e) {
+            log.warn("AI shadow report unavailable: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private AiModelService.PendingAnalysis begin(Job job) {
+        try {
+            return aiModelService.begin(job.reading(), job.features());
+        } catch (Exception e) {
+            fail(job, e);
+            return null;
+        }
+    }
+
+    private void finish(Job job, AiModelService.PendingAnalysis pending) {
+        try {
+            AiInsightDTO insight = aiModelService.finish(pending);
+            if (job.result().complete(insight)) {
+                long latency = System.nanoTime() - job.enqueuedNanos();
+                completed.increment();
+                latencyNanos.add(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            }
+        } catch (Exception e) {
+            fail(job, e);
+        }
+    }
+
+    private void fail(Job job, Exception e) {
+        failed.increment();
+        job.result().completeExceptionally(e);
+        log.warn("AI Analysis unavailable: {}", e.getMessage());
+    }
+
+    private static AiInsightDTO degraded(EnergyReading reading, String message) {
+        double actual = reading.getEnergyConsumption() != null ? reading.getEnergyConsumption() : 0.0;
+        return new AiInsightDTO(false, 0.0, actual, 0.0, message);
+    }
+}
@@ -1,37 +1,153 @@
 package com.energy.energy_server.service.components;
 
-import com.energy.energy_server.model.EnergyReading;
 import com.energy.energy_server.repository.EnergyReadingRepository;
-import lombok.RequiredArgsConstructor;
+import com.energy.energy_server.synthetic.SyntheticTelemetryGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class IngestionService {
 
+    private static final String SYNTHETIC_PREFIX = "synth-";
+    private static final int MAX_SYNTHETIC_ROWS = 50_000_000;
+    // The only ids this service hands out: a stored upload's hash prefix, or synth-<seed>-<rows>
+    private static final Pattern STORED_ID = Pattern.compile("[0-9a-f]{16}");
+    private static final Pattern SYNTHETIC_ID = Pattern.compile("synth-(-?\\d{1,19})-(\\d{1,10})");
+
     private final EnergyReadingRepository repository;
     private final SimulationService simulationService;
     private final AuditService auditService;
+    private final Path datasetDir;
+
+    public IngestionService(EnergyReadingRepository repository,
+                            SimulationService simulationService,
+                            AuditService auditService,
+                            @Value("${simulation.dataset-dir:data/datasets}") String datasetDir) {
+        this.repository = repository;
+        this.simulationService = simulationService;
+        this.auditService = auditService;
+        this.datasetDir = Path.of(datasetDir);
+    }
+
+    /**
+     * Stores the upload in the shared dataset directory (so any replica can take over
+     * the replay), parses it and loads the simulation queue.
+     *
+     * @return content-addressed dataset id
+     */
+    public String handleUpload(MultipartFile file) throws Exception {
+        try {
+            String datasetId = store(file);
+            ReplayBuffer buffer = loadStoredDataset(datasetId);
+
+            if (buffer.size() > 0) {
+                repository.deleteAllInBatch();
+                auditService.reset(buffer.size());
+                simulationService.loadQueue(buffer);
+                log.info("Ingested {} records | Dataset: {}", buffer.size(), datasetId);
+            }
+            return datasetId;
+
+        } catch (Exception e) {
+            log.error("CSV ingestion failed", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Generates a seeded synthetic dataset and loads it for replay. Nothing is written
+     * to the dataset directory: the id encodes seed and size, so any replica regenerates it.
+     */
+    public String loadSynthetic(long seed, int rows) {
+        String datasetId = SYNTHETIC_PREFIX + seed + "-" + rows;
+        ReplayBuffer buffer = generateSynthetic(seed, rows, datasetId);
+
+        repository.deleteAllInBatch();
+        auditService.reset(buffer.size());
+        simulationService.loadQueue(buffer);
+        log.info("Generated {} synthetic records | Dataset: {}", buffer.size(), datasetId);
+        return datasetId;
+    }
+
+    /**
+     * Re-parses a previously stored dataset, e.g. when this node becomes simulation leader.
+     * Ids come from admin requests too, so only the two formats handed out here are accepted.
+     */
+    public ReplayBuffer loadStoredDataset(String datasetId) throws IOException {
+        if (datasetId == null) {
+            throw new IllegalArgumentException("Dataset id is required");
+        }
+        Matcher synthetic = SYNTHETIC_ID.matcher(datasetId);
+        if (synthetic.matches()) {
+            // Seed may be negative; the row count gets the same cap as /synthetic-dataset
+            long seed = Long.parseLong(synthetic.group(1));
+            long rows = Long.parseLong(synthetic.group(2));
+            if (rows > MAX_SYNTHETIC_ROWS) {
+                throw new IllegalArgumentException("Synthetic rows must be between 1 and " + MAX_SYNTHETIC_ROWS);
+            }
+            return generateSynthetic(seed, (int) rows, datasetId);
+        }
+        if (!STORED_ID.matcher(datasetId).matches()) {
+            throw new IllegalArgumentException("Unknown dataset id: " + datasetId);
+        }
+        Path base = datasetDir.toAbsolutePath().normalize();
+        Path file = base.resolve(datasetId + ".csv").normalize();
+        if (!file.startsWith(base)) {
+            throw new IllegalArgumentException("Unknown dataset id: " + datasetId);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return parse(in, datasetId);
+        }
+    }
 
-    public void handleUpload(MultipartFile file) throws Exception {
-        List<EnergyReading> readings = new ArrayList<>();
+    private ReplayBuffer generateSynthetic(long seed, int rows, String datasetId) {
+        if (rows <= 0 || rows > MAX_SYNTHETIC_ROWS) {
+            throw new IllegalArgumentException("Synthetic rows must be between 1 and " + MAX_SYNTHETIC_ROWS);
+        }
+        return new SyntheticTelemetryGenerator(SyntheticTelemetryGenerator.Config.defaults(seed))
+                .toBuffer(datasetId, rows);
+    }
+
+    private String store(MultipartFile file) throws Exception {
+        Files.createDirectories(datasetDir);
+        Path tmp = Files.createTempFile(datasetDir, "upload-", ".tmp");
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        String datasetId = HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+        Files.move(tmp, datasetDir.resolve(datasetId + ".csv"), StandardCopyOption.REPLACE_EXISTING);
+        return datasetId;
+    }
+
+    private ReplayBuffer parse(InputStream in, String datasetId) throws IOException {
+        ReplayBuffer.Builder buffer = ReplayBuffer.builder(datasetId, 1024);
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-        try (BufferedReader fileReader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
+        try (BufferedReader fileReader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
              CSVParser csvParser = CSVFormat.Builder.create(CSVFormat.DEFAULT)
                      .setHeader()
                      .setSkipHeaderRecord(true)
@@ -41,34 +157,21 @@ public class IngestionService {
                      .parse(fileReader)) {
 
             for (CSVRecord csvRecord : csvParser) {
-                EnergyReading entity = new EnergyReading();
-                
-                entity.setCorrelationId(java.util.UUID.randomUUID().toString());
-                entity.setTimestamp(LocalDateTime.parse(csvRecord.get("Timestamp"), formatter));
-                entity.setTemperature(Double.parseDouble(csvRecord.get("Temperature")));
-                entity.setHumidity(Double.parseDouble(csvRecord.get("Humidity")));
-                entity.setSquareFootage(Double.parseDouble(csvRecord.get("SquareFootage")));
-                entity.setOccupancy(Integer.parseInt(csvRecord.get("Occupancy")));
-                entity.setHvacUsage(csvRecord.get("HVACUsage"));
-                entity.setLightingUsage(csvRecord.get("LightingUsage"));
-                entity.setRenewableEnergy(Double.parseDouble(csvRecord.get("RenewableEnergy")));
-                entity.setDayOfWeek(csvRecord.get("DayOfWeek"));
-                entity.setHoliday(csvRecord.get("Holiday"));
-                entity.setEnergyConsumption(Double.parseDouble(csvRecord.get("EnergyConsumption")));
-
-                readings.add(entity);
-            }
-
-            if (!readings.isEmpty()) {
-                repository.deleteAllInBatch();
-                auditService.reset(readings.size());
-                simulationService.loadQueue(readings);
-                log.info("Ingested {} records", readings.size());
+                // Correlation ids are derived from datasetId + row index by the buffer
+                buffer.add(
+                        LocalDateTime.parse(csvRecord.get("Timestamp"), formatter),
+                        Double.parseDouble(csvRecord.get("Temperature")),
+                        Double.parseDouble(csvRecord.get("Humidity")),
+                        Double.parseDouble(csvRecord.get("SquareFootage")),
+                        Integer.parseInt(csvRecord.get("Occupancy")),
+                        csvRecord.get("HVACUsage"),
+                        csvRecord.get("LightingUsage"),
+                        Double.parseDouble(csvRecord.get("RenewableEnergy")),
+                        csvRecord.get("DayOfWeek"),
+                        csvRecord.get("Holiday"),
+                        Double.parseDouble(csvRecord.get("EnergyConsumption")));
             }
-
-        } catch (Exception e) {
-            log.error("CSV ingestion failed", e);
-            throw e;
         }
+        return buffer.build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,259 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.ai.FeatureEngine;
+import com.energy.energy_server.ai.ModelBundle;
+import com.energy.energy_server.ai.ModelConfig;
+import com.energy.energy_server.ai.SeriesDataSetIterator;
+import com.energy.energy_server.model.EnergyReading;
+import com.energy.energy_server.repository.EnergyReadingRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.blas.Blas;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.factory.Environment;
+import org.nd4j.linalg.factory.Nd4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Periodically fine-tunes a copy of the live network on the most recent readings and, if it
+ * beats the live model on a chronological holdout, publishes it to the {@link ModelRegistry}
+ * together with its holdout MAE (which becomes the anomaly threshold base once promoted).
+ *
+ * <p>Training runs on one minimum-priority thread and yields to inference: it pauses while
+ * any reading is queued or being scored and, after each mini-batch, sleeps long enough to stay
+ * within {@code ai.finetune.cpu-share} of one core. Thread priority and the duty cycle only
+ * bound the Java thread, while {@code fit} runs in ND4J's native OpenMP/BLAS pools, which
+ * default to every core; a run therefore caps them at {@code ai.finetune.native-threads} and
+ * restores them afterwards. The cap is process-wide, which live inference can afford: its
+ * micro-batches are too small to fan out over many cores. The live normalizer is reused so the
+ * tuned weights keep the input scaling they were trained with.
+ */
+@Slf4j
+@Service
+public class ModelFineTuner {
+
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final long BACKLOG_PAUSE_MS = 50;
+
+    private final ModelRegistry modelRegistry;
+    private final EnergyReadingRepository energyReadingRepository;
+    private final InferenceWorkerPool inferenceWorkerPool;
+
+    private final boolean enabled;
+    private final int lookbackRows;
+    private final int minRows;
+    private final double holdoutRatio;
+    private final int epochs;
+    private final int batchSize;
+    private final double learningRate;
+    private final double cpuShare;
+    private final double minImprovement;
+    private final int nativeThreads;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().priority(Thread.MIN_PRIORITY).name("nexus-fine-tune").factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ModelFineTuner(ModelRegistry modelRegistry,
+                          EnergyReadingRepository energyReadingRepository,
+                          InferenceWorkerPool inferenceWorkerPool,
+                          @Value("${ai.finetune.enabled:true}") boolean enabled,
+                          @Value("${ai.finetune.lookback-rows:20000}") int lookbackRows,
+                          @Value("${ai.finetune.min-rows:2000}") int minRows,
+                          @Value("${ai.finetune.holdout-ratio:0.2}") double holdoutRatio,
+                          @Value("${ai.finetune.epochs:5}") int epochs,
+                          @Value("${ai.finetune.batch-size:16}") int batchSize,
+                          @Value("${ai.finetune.learning-rate:0.001}") double learningRate,
+                          @Value("${ai.finetune.cpu-share:0.25}") double cpuShare,
+                          @Value("${ai.finetune.min-improvement:0.02}") double minImprovement,
+                          @Value("${ai.finetune.native-threads:1}") int nativeThreads) {
+        this.modelRegistry = modelRegistry;
+        this.energyReadingRepository = energyReadingRepository;
+        this.inferenceWorkerPool = inferenceWorkerPool;
+        this.enabled = enabled;
+        this.lookbackRows = lookbackRows;
+        this.minRows = Math.max(minRows, ModelConfig.TIME_STEPS * 4);
+        this.holdoutRatio = holdoutRatio;
+        this.epochs = epochs;
+        this.batchSize = batchSize;
+        this.learningRate = learningRate;
+        this.cpuShare = Math.min(1.0, Math.max(0.05, cpuShare));
+        this.minImprovement = minImprovement;
+        this.nativeThreads = Math.max(1, nativeThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    @Scheduled(initialDelayString = "${ai.finetune.initial-delay-ms:600000}",
+               fixedDelayString = "${ai.finetune.interval-ms:21600000}")
+    public void scheduledRun() {
+        if (enabled) {
+            trigger();
+        }
+    }
+
+    /** Starts a fine-tuning run in the background; false if one is already running. */
+    public boolean trigger() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        worker.execute(() -> {
+            try {
+                fineTuneOnCappedThreads();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("NEXUS_AI | Fine-tuning failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void fineTune() throws Exception {
+        ModelBundle live = modelRegistry.live();
+        if (live == null) {
+            return;
+        }
+        List<EnergyReading> recent = new ArrayList<>(
+                energyReadingRepository.findByOrderByTimestampDesc(PageRequest.of(0, lookbackRows)));
+        if (recent.size() < minRows) {
+            log.info("NEXUS_AI | Fine-tuning skipped | {} readings available, {} required", recent.size(), minRows);
+            return;
+        }
+        Collections.reverse(recent);
+
+        FeatureEngine.Series series = toSeries(recent);
+        int samples = series.sampleCount();
+        int holdoutStart = (int) (samples * (1.0 - holdoutRatio));
+        NormalizerStandardize normalizer = live.normalizer();
+
+        MultiLayerNetwork baseline = live.copyNetwork();
+        MultiLayerNetwork tuned = live.copyNetwork();
+        tuned.setLearningRate(learningRate);
+
+        long start = System.nanoTime();
+        SeriesDataSetIterator train = new SeriesDataSetIterator(series, 0, holdoutStart, batchSize, new Random(ModelConfig.SEED));
+        train.setPreProcessor(normalizer);
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            train.reset();
+            while (train.hasNext()) {
+                yieldToInference();
+                long batchStart = System.nanoTime();
+                tuned.fit(train.next());
+                throttle(System.nanoTime() - batchStart);
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        double liveMae = holdoutMae(baseline, normalizer, series, holdoutStart, samples);
+        double tunedMae = holdoutMae(tuned, normalizer, series, holdoutStart, samples);
+        log.info("NEXUS_AI | Fine-tuning done in {} s | {} training / {} holdout samples | Holdout MAE live {} vs tuned {} kWh",
+                String.format("%.1f", elapsedSeconds), holdoutStart, samples - holdoutStart,
+                String.format("%.3f", liveMae), String.format("%.3f", tunedMae));
+
+        if (tunedMae <= liveMae * (1.0 - minImprovement)) {
+            modelRegistry.publish("ft-" + LocalDateTime.now().format(VERSION_FORMAT), tuned, normalizer, tunedMae);
+        } else {
+            log.info("NEXUS_AI | Fine-tuned model discarded: improvement below {}%", String.format("%.1f", minImprovement * 100));
+        }
+    }
+
+    /** Runs {@link #fineTune()} with ND4J's native op and BLAS pools capped at {@code nativeThreads}. */
+    private void fineTuneOnCappedThreads() throws Exception {
+        Environment environment = Nd4j.getEnvironment();
+        Blas blas = Nd4j.factory().blas();
+        int ops = environment.maxThreads();
+        int masters = environment.maxMasterThreads();
+        int blasThreads = blas.getMaxThreads();
+        environment.setMaxThreads(nativeThreads);
+        environment.setMaxMasterThreads(nativeThreads);
+        blas.setMaxThreads(nativeThreads);
+        try {
+            fineTune();
+        } finally {
+            environment.setMaxThreads(ops);
+            environment.setMaxMasterThreads(masters);
+            blas.setMaxThreads(blasThreads);
+        }
+    }
+
+    /** Pauses while inference has work queued or running: fine-tuning only uses idle capacity. */
+    private void yieldToInference() throws InterruptedException {
+        while (inferenceWorkerPool.load() > 0) {
+            TimeUnit.MILLISECONDS.sleep(BACKLOG_PAUSE_MS);
+        }
+    }
+
+    /** Duty cycle: after {@code busyNanos} of work, idle so that work stays at {@code cpuShare}. */
+    private void throttle(long busyNanos) throws InterruptedException {
+        LockSupport.parkNanos((long) (busyNanos * (1.0 - cpuShare) / cpuShare));
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private double holdoutMae(MultiLayerNetwork model, NormalizerStandardize normalizer,
+                              FeatureEngine.Series series, int from, int to) throws InterruptedException {
+        int steps = ModelConfig.TIME_STEPS;
+        double mean = normalizer.getLabelMean().getDouble(0);
+        double std = normalizer.getLabelStd().getDouble(0);
+        double totalAbsError = 0;
+        for (int start = from; start < to; start += batchSize) {
+            yieldToInference();
+            int count = Math.min(batchSize, to - start);
+            DataSet batch = SeriesDataSetIterator.batch(series, start, count);
+            INDArray features = batch.getFeatures();
+            normalizer.transform(features);
+            INDArray output = model.output(features);
+            for (int i = 0; i < count; i++) {
+                double predicted = Math.max(0.0, output.getDouble(i, 0, steps - 1) * std + mean);
+                totalAbsError += Math.abs(predicted - series.target(start + i));
+            }
+        }
+        return to > from ? totalAbsError / (to - from) : Double.MAX_VALUE;
+    }
+
+    private static FeatureEngine.Series toSeries(List<EnergyReading> readings) {
+        int features = FeatureEngine.FEATURES;
+        float[] rows = new float[readings.size() * features];
+        double[] consumption = new double[readings.size()];
+        double lastConsumption = Double.NaN;
+        for (int i = 0; i < readings.size(); i++) {
+            EnergyReading r = readings.get(i);
+            double value = r.getEnergyConsumption() != null ? r.getEnergyConsumption() : 0.0;
+            FeatureEngine.engineer(
+                    r.getTemperature() != null ? r.getTemperature() : 0.0,
+                    r.getOccupancy() != null ? r.getOccupancy() : 0.0,
+                    r.getLightingUsage(),
+                    Double.isNaN(lastConsumption) ? value : lastConsumption,
+                    r.getTimestamp() != null ? r.getTimestamp().getHour() : 0,
+                    rows, i * features);
+            consumption[i] = value;
+            lastConsumption = value;
+        }
+        return new FeatureEngine.Series(rows, consumption, readings.size());
+    }
+}
@@ -0,0 +1,429 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.ai.FeatureWindow;
+import com.energy.energy_server.ai.ModelBundle;
+import com.energy.energy_server.ai.ModelConfig;
+import com.energy.energy_server.dto.ModelRegistryStatusDTO;
+import com.energy.energy_server.model.EnergyReading;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Owns the live model and hot-swaps new versions without a restart.
+ *
+ * <p>Versions are sub-directories of {@code ai.model.registry-dir}, each holding a
+ * {@code trained_model.zip} and {@code normalizer.bin}. A version newer than the live one is
+ * loaded in the background and scored in shadow on a dedicated thread: for every live
+ * prediction the candidate predicts on the same feature snapshot, and both are charged the
+ * absolute error against the next reading's actual consumption. Once enough samples are in,
+ * the candidate is promoted (reference swap; in-flight calls finish on the old bundle) or
+ * rejected; admins can also decide manually.
+ *
+ * <p>A version may carry an {@code MAE} file with its holdout MAE in kWh; the anomaly
+ * threshold follows the live version's value.
+ */
+@Slf4j
+@Service
+public class ModelRegistry {
+
+    public static final String BASELINE_VERSION = "baseline";
+    private static final String PROMOTED_MARKER = "PROMOTED";
+    private static final String REJECTED_MARKER = "REJECTED";
+    private static final String MAE_FILE = "MAE";
+    private static final String MODEL_FILE = new File(ModelConfig.MODEL_EXPORT_PATH).getName();
+    private static final String NORMALIZER_FILE = new File(ModelConfig.NORMALIZER_EXPORT_PATH).getName();
+
+    private final ModelBundle.Settings settings;
+    private final Path registryDir;
+    private final long settleMs;
+    private final int minShadowSamples;
+    private final double maxMaeRegression;
+    private final boolean autoPromote;
+
+    private volatile ModelBundle live;
+    private volatile long liveModifiedMillis;
+    private volatile Shadow shadow;
+    private volatile String lastEvent = "none";
+
+    private final BlockingQueue<ShadowJob> shadowQueue = new ArrayBlockingQueue<>(256);
+    private final LongAdder shadowDropped = new LongAdder();
+    private Thread shadowThread;
+
+    private record ShadowJob(Shadow shadow, FeatureWindow.Snapshot features, double actual,
+                             double livePrediction, long liveLatencyNanos) {}
+
+    public ModelRegistry(@Value("${ai.inference.backend:nd4j}") String backend,
+                         @Value("${ai.inference.mode:window}") String inferenceMode,
+                         @Value("${ai.inference.streaming.reanchor-steps:12}") int reanchorSteps,
+                         @Value("${ai.inference.batch.max-size:32}") int batchMaxSize,
+                         @Value("${ai.inference.batch.max-wait-us:2000}") long batchMaxWaitMicros,
+                         @Value("${ai.inference.batch.timeout-ms:2000}") long timeoutMs,
+                         @Value("${ai.model.registry-dir:data/models}") String registryDir,
+                         @Value("${ai.model.settle-ms:5000}") long settleMs,
+                         @Value("${ai.model.shadow.min-samples:200}") int minShadowSamples,
+                         @Value("${ai.model.shadow.max-mae-regression:0.0}") double maxMaeRegression,
+                         @Value("${ai.model.shadow.auto-promote:true}") boolean autoPromote) {
+        this.settings = new ModelBundle.Settings(backend, "streaming".equalsIgnoreCase(inferenceMode),
+                reanchorSteps, batchMaxSize, batchMaxWaitMicros, timeoutMs);
+        this.registryDir = Path.of(registryDir);
+        this.settleMs = settleMs;
+        this.minShadowSamples = minShadowSamples;
+        this.maxMaeRegression = maxMaeRegression;
+        this.autoPromote = autoPromote;
+    }
+
+    @PostConstruct
+    public void init() {
+        loadInitial();
+        shadowThread = Thread.ofPlatform().daemon().name("nexus-model-shadow").start(this::shadowLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (shadowThread != null) shadowThread.interrupt();
+        Shadow s = shadow;
+        if (s != null) s.candidate.close();
+        ModelBundle current = live;
+        if (current != null) {
+            log.info("NEXUS_AI | Model shutdown | {}", current.stats());
+            current.close();
+        }
+    }
+
+    /** The bundle to use for this call, or null when no model is available. */
+    public ModelBundle live() {
+        return live;
+    }
+
+    /**
+     * Hands a live prediction to the shadow scorer; never blocks the caller. Every reading
+     * should be reported, also when its neural check was skipped ({@code prediction} NaN: the
+     * shadow thread then scores the live model itself), so the comparison sees the whole stream.
+     *
+     * @return true when the reading was queued for shadow scoring
+     */
+    public boolean recordLive(EnergyReading reading, FeatureWindow.Snapshot features, double prediction, long latencyNanos) {
+        Shadow s = shadow;
+        if (s == null || features == null) return false;
+        double actual = reading.getEnergyConsumption() != null ? reading.getEnergyConsumption() : 0.0;
+        if (!shadowQueue.offer(new ShadowJob(s, features, actual, prediction, latencyNanos))) {
+            shadowDropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${ai.model.watch-interval-ms:10000}")
+    public void scan() {
+        if (shadow != null || !Files.isDirectory(registryDir)) return;
+
+        Optional<Path> newest;
+        try (Stream<Path> dirs = Files.list(registryDir)) {
+            long settledBefore = System.currentTimeMillis() - settleMs;
+            newest = dirs.filter(dir -> !dir.getFileName().toString().startsWith("."))
+                    .filter(this::isCompleteVersion)
+                    .filter(dir -> !Files.exists(dir.resolve(REJECTED_MARKER)))
+                    .filter(dir -> modifiedMillis(dir) > liveModifiedMillis && modifiedMillis(dir) < settledBefore)
+                    .max(Comparator.comparingLong(this::modifiedMillis));
+        } catch (IOException e) {
+            log.warn("NEXUS_AI | Model registry scan failed: {}", e.getMessage());
+            return;
+        }
+        newest.ifPresent(this::startShadow);
+    }
+
+    /**
+     * Writes a new version into the registry directory; it goes through shadow scoring like
+     * any dropped-in version. Files are staged in a hidden directory and moved in atomically.
+     *
+     * @param maeKwh holdout MAE, used for the anomaly threshold once the version is live
+     */
+    public Path publish(String version, MultiLayerNetwork model, NormalizerStandardize normalizer, double maeKwh) throws IOException {
+        Path target = registryDir.resolve(version);
+        Path staging = registryDir.resolve("." + version + ".tmp");
+        Files.createDirectories(staging);
+        ModelSerializer.writeModel(model, staging.resolve(MODEL_FILE).toFile(), false);
+        NormalizerSerializer.getDefault().write(normalizer, staging.resolve(NORMALIZER_FILE).toFile());
+        Files.writeString(staging.resolve(MAE_FILE), Double.toString(maeKwh), StandardCharsets.UTF_8);
+        Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+        log.info("NEXUS_AI | Published model version {} | Holdout MAE: {} kWh", version, String.format("%.3f", maeKwh));
+        return target;
+    }
+
+    public synchronized ModelRegistryStatusDTO promote() {
+        Shadow s = shadow;
+        if (s == null) {
+            throw new IllegalStateException("No candidate model under evaluation");
+        }
+        ModelBundle previous = live;
+        live = s.candidate;
+        liveModifiedMillis = s.modifiedMillis;
+        shadow = null;
+        writePromotedMarker(s.candidate.version());
+        event(String.format("Promoted %s over %s | Shadow MAE %.3f vs %.3f kWh over %d samples",
+                s.candidate.version(), previous != null ? previous.version() : "none",
+                s.candidateMae(), s.liveMae(), s.samples));
+        retire(previous);
+        return status();
+    }
+
+    public synchronized ModelRegistryStatusDTO reject() {
+        Shadow s = shadow;
+        if (s == null) {
+            throw new IllegalStateException("No candidate model under evaluation");
+        }
+        shadow = null;
+        event(String.format("Rejected %s | Shadow MAE %.3f vs live %.3f kWh over %d samples",
+                s.candidate.version(), s.candidateMae(), s.liveMae(), s.samples));
+        try {
+            // Persisted so the version is not shadowed again after a restart
+            Files.writeString(s.dir.resolve(REJECTED_MARKER), lastEvent, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("NEXUS_AI | Cannot mark {} as rejected: {}", s.candidate.version(), e.getMessage());
+        }
+        s.candidate.close();
+        return status();
+    }
+
+    public ModelRegistryStatusDTO status() {
+        ModelBundle current = live;
+        Shadow s = shadow;
+        return new ModelRegistryStatusDTO(
+                current != null ? current.version() : null,
+                current != null ? current.describe() : null,
+                s != null ? s.candidate.version() : null,
+                s != null ? s.samples : 0,
+                s != null ? s.liveMae() : 0.0,
+                s != null ? s.candidateMae() : 0.0,
+                s != null ? s.liveLatencyMs() : 0.0,
+                s != null ? s.candidateLatencyMs() : 0.0,
+                shadowDropped.sum(),
+                lastEvent);
+    }
+
+    private void loadInitial() {
+        try {
+            Path promoted = registryDir.resolve(PROMOTED_MARKER);
+            if (Files.exists(promoted)) {
+                Path dir = registryDir.resolve(Files.readString(promoted, StandardCharsets.UTF_8).trim());
+                if (isCompleteVersion(dir)) {
+                    live = loadVersion(dir);
+                    liveModifiedMillis = modifiedMillis(dir);
+                }
+            }
+            File modelFile = new File(ModelConfig.MODEL_EXPORT_PATH);
+            File normFile = new File(ModelConfig.NORMALIZER_EXPORT_PATH);
+            if (live == null && modelFile.exists() && normFile.exists()) {
+                live = ModelBundle.load(BASELINE_VERSION, modelFile, normFile, ModelBundle.BASELINE_MAE_KWH, settings);
+                liveModifiedMillis = modelFile.lastModified();
+            }
+
+            if (live != null) {
+                log.info("Digital Twin AI Engine initialized with MAE-base: {} kWh", live.maeKwh());
+                log.info("NEXUS_AI | Live model: {} | Inference path: {}", live.version(), live.describe());
+            } else {
+                log.warn("AI Assets missing. Models must be trained before inference is available.");
+            }
+        } catch (Exception e) {
+            log.error("Failed to initialize AI Service", e);
+        }
+    }
+
+    private void startShadow(Path dir) {
+        String version = dir.getFileName().toString();
+        try {
+            ModelBundle candidate = loadVersion(dir);
+            if (live == null) {
+                // Nothing to compare against: go live directly
+                live = candidate;
+                liveModifiedMillis = modifiedMillis(dir);
+                writePromotedMarker(version);
+                event("Loaded " + version + " (no previous live model)");
+                return;
+            }
+            shadow = new Shadow(candidate, dir, modifiedMillis(dir));
+            event("Shadowing " + version + " against " + live.version());
+        } catch (Exception e) {
+            try {
+                Files.writeString(dir.resolve(REJECTED_MARKER), "load failed: " + e.getMessage(), StandardCharsets.UTF_8);
+            } catch (IOException ignored) {
+                // Retried on the next scan
+            }
+            log.error("NEXUS_AI | Cannot load model version {}", version, e);
+        }
+    }
+
+    private ModelBundle loadVersion(Path dir) throws IOException {
+        double mae = ModelBundle.BASELINE_MAE_KWH;
+        Path maeFile = dir.resolve(MAE_FILE);
+        if (Files.exists(maeFile)) {
+            try {
+                mae = Double.parseDouble(Files.readString(maeFile, StandardCharsets.UTF_8).trim());
+            } catch (NumberFormatException e) {
+                log.warn("NEXUS_AI | Ignoring malformed MAE for {}", dir.getFileName());
+            }
+        }
+        return ModelBundle.load(dir.getFileName().toString(),
+                dir.resolve(MODEL_FILE).toFile(), dir.resolve(NORMALIZER_FILE).toFile(), mae, settings);
+    }
+
+    private void shadowLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            ShadowJob job;
+            try {
+                job = shadowQueue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Shadow s = job.shadow();
+            if (s != shadow) continue; // promoted or rejected meanwhile
+
+            try {
+                if (Double.isNaN(job.livePrediction())) {
+                    // Skipped by the pre-filter: the comparison still needs the live model's view
+                    ModelBundle current = live;
+                    if (current == null) continue;
+                    long liveStart = System.nanoTime();
+                    double livePrediction = current.predictWindow(job.features().window());
+                    job = new ShadowJob(s, job.features(), job.actual(), livePrediction, System.nanoTime() - liveStart);
+                }
+                long t0 = System.nanoTime();
+                double candidatePrediction = s.candidate.predict(job.features());
+                s.record(job, candidatePrediction, System.nanoTime() - t0);
+            } catch (Exception e) {
+                log.warn("NEXUS_AI | Shadow inference failed for {}: {}", s.candidate.version(), e.getMessage());
+            }
+
+            if (autoPromote && s.samples >= minShadowSamples) {
+                synchronized (this) {
+                    if (s != shadow) continue;
+                    if (s.candidateMae() <= s.liveMae() * (1.0 + maxMaeRegression)) {
+                        promote();
+                    } else {
+                        reject();
+                    }
+                }
+            }
+        }
+    }
+
+    private void retire(ModelBundle previous) {
+        if (previous == null) return;
+        // Let in-flight calls that already hold the old bundle finish before closing it
+        long graceMs = Math.max(1000, settings.timeoutMs() * 4);
+        Thread.ofVirtual().name("nexus-model-retire").start(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(graceMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.info("NEXUS_AI | Retired model | {}", previous.stats());
+            previous.close();
+        });
+    }
+
+    private void writePromotedMarker(String version) {
+        if (BASELINE_VERSION.equals(version)) return;
+        try {
+            Files.createDirectories(registryDir);
+            Files.writeString(registryDir.resolve(PROMOTED_MARKER), version, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("NEXUS_AI | Cannot persist promoted version {}: {}", version, e.getMessage());
+        }
+    }
+
+    private void event(String message) {
+        lastEvent = message;
+        log.info("NEXUS_AI | {}", message);
+    }
+
+    private boolean isCompleteVersion(Path dir) {
+        return Files.isRegularFile(dir.resolve(MODEL_FILE)) && Files.isRegularFile(dir.resolve(NORMALIZER_FILE));
+    }
+
+    private long modifiedMillis(Path dir) {
+        return Math.max(dir.resolve(MODEL_FILE).toFile().lastModified(), dir.resolve(NORMALIZER_FILE).toFile().lastModified());
+    }
+
+    /** Candidate under evaluation; written by the shadow thread only. */
+    private static final class Shadow {
+
+        private final ModelBundle candidate;
+        private final Path dir;
+        private final long modifiedMillis;
+
+        private volatile long samples;
+        private volatile double liveAbsError;
+        private volatile double candidateAbsError;
+        private long liveLatencyNanos;
+        private long candidateLatencyNanos;
+        private long scored;
+
+        // Predictions from the previous snapshot, scored against the next actual
+        private long lastGeneration = -1;
+        private long lastSequence = -1;
+        private double lastLivePrediction;
+        private double lastCandidatePrediction;
+
+        private Shadow(ModelBundle candidate, Path dir, long modifiedMillis) {
+            this.candidate = candidate;
+            this.dir = dir;
+            this.modifiedMillis = modifiedMillis;
+        }
+
+        private void record(ShadowJob job, double candidatePrediction, long candidateNanos) {
+            FeatureWindow.Snapshot features = job.features();
+            if (features.generation() == lastGeneration && features.sequence() == lastSequence + 1) {
+                liveAbsError += Math.abs(job.actual() - lastLivePrediction);
+                candidateAbsError += Math.abs(job.actual() - lastCandidatePrediction);
+                samples++;
+            }
+            lastGeneration = features.generation();
+            lastSequence = features.sequence();
+            lastLivePrediction = job.livePrediction();
+            lastCandidatePrediction = candidatePrediction;
+            liveLatencyNanos += job.liveLatencyNanos();
+            candidateLatencyNanos += candidateNanos;
+            scored++;
+        }
+
+        private double liveMae() {
+            return samples == 0 ? 0.0 : liveAbsError / samples;
+        }
+
+        private double candidateMae() {
+            return samples == 0 ? 0.0 : candidateAbsError / samples;
+        }
+
+        private double liveLatencyMs() {
+            return scored == 0 ? 0.0 : liveLatencyNanos / 1e6 / scored;
+        }
+
+        private double candidateLatencyMs() {
+            return scored == 0 ? 0.0 : candidateLatencyNanos / 1e6 / scored;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.config.RabbitMQConfig;
+import com.energy.energy_server.dto.StreamEventDTO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cross-node fan-out over a RabbitMQ fanout exchange.
+ * Local dashboards are served immediately without a broker round trip; every other
+ * replica receives the event on its own exclusive queue. A short-lived id cache
+ * drops our own echoes and broker redeliveries.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stream.fanout.mode", havingValue = "rabbit")
+public class RabbitTelemetryFanout implements TelemetryFanout {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterNode clusterNode;
+
+    private final Cache<String, Boolean> seenEvents = CacheBuilder.newBuilder()
+            .expireAfterWrite(5, TimeUnit.MINUTES)
+            .maximumSize(10000)
+            .build();
+
+    @Override
+    public void publish(StreamEventDTO event) {
+        deliverLocally(event);
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.TELEMETRY_FANOUT_EXCHANGE, "", event);
+        } catch (Exception e) {
+            // Other replicas miss this event; their dashboards catch up on the next one
+            log.warn("NEXUS_CLUSTER | Fan-out publish failed | Event: {} | Error: {}", event.eventId(), e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "#{telemetryFanoutQueue.name}", concurrency = "1")
+    public void onClusterEvent(StreamEventDTO event) {
+        if (clusterNode.getNodeId().equals(event.originNode())) {
+            return;
+        }
+        deliverLocally(event);
+    }
+
+    private void deliverLocally(StreamEventDTO event) {
+        if (event.eventId() != null && seenEvents.asMap().putIfAbsent(event.eventId(), Boolean.TRUE) != null) {
+            log.debug("NEXUS_CLUSTER | Duplicate event dropped: {}", event.eventId());
+            return;
+        }
+        eventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,280 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.dto.ReplayStreamDTO;
+import com.energy.energy_server.model.EnergyReading;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * High-rate replay engine for soak tests.
+ * Each stream owns its dataset and cursor and runs on its own virtual thread, paced
+ * against the dataset timestamps: speed 1 is real time, N compresses time N-fold and
+ * 0 replays as fast as the persistence path allows.
+ *
+ * <p>Streams are node-local and independent from the leader-driven simulation: rows get
+ * stream-scoped correlation ids, so concurrent streams over one dataset never collide.
+ * A completed stream releases its dataset; only its final snapshot is kept, for the last
+ * {@value #FINISHED_HISTORY} completions.
+ */
+@Slf4j
+@Service
+public class ReplayEngine {
+
+    public enum State { RUNNING, PAUSED, COMPLETED, STOPPED }
+
+    private static final int FINISHED_HISTORY = 32;
+
+    private final EnergyPersistenceService energyPersistenceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxStreams;
+
+    private final Map<String, ReplayStream> streams = new ConcurrentHashMap<>();
+    // Final snapshots of completed streams, oldest evicted first
+    private final Map<String, ReplayStreamDTO> finished = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ReplayStreamDTO> eldest) {
+                    return size() > FINISHED_HISTORY;
+                }
+            });
+
+    public ReplayEngine(EnergyPersistenceService energyPersistenceService,
+                        ApplicationEventPublisher eventPublisher,
+                        @Value("${simulation.replay.max-streams:8}") int maxStreams) {
+        this.energyPersistenceService = energyPersistenceService;
+        this.eventPublisher = eventPublisher;
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * Starts a new stream.
+     *
+     * @param speed         time multiplier; 0 (or negative) means as fast as possible
+     * @param publishEvents whether each reading triggers the dashboard/AI pipeline
+     */
+    public ReplayStreamDTO startStream(ReplayBuffer buffer, double speed, boolean publishEvents) {
+        if (buffer.size() == 0) {
+            throw new IllegalArgumentException("Dataset " + buffer.datasetId() + " is empty");
+        }
+
+        String id = "replay-" + UUID.randomUUID().toString().substring(0, 8);
+        ReplayStream stream = new ReplayStream(id, buffer, Math.max(0.0, speed), publishEvents);
+        // Check and register together, so concurrent starts cannot both take the last slot
+        synchronized (streams) {
+            long active = streams.values().stream().filter(s -> !s.isFinished()).count();
+            if (active >= maxStreams) {
+                throw new IllegalStateException("Replay stream limit reached (" + maxStreams + ")");
+            }
+            streams.put(id, stream);
+        }
+        stream.thread = Thread.ofVirtual().name(id).start(stream);
+
+        log.info("NEXUS_REPLAY | Stream {} started | Dataset: {} | Records: {} | Speed: {}",
+                id, buffer.datasetId(), buffer.size(), speed <= 0 ? "MAX" : speed + "x");
+        return stream.snapshot();
+    }
+
+    public List<ReplayStreamDTO> listStreams() {
+        List<ReplayStreamDTO> result = new ArrayList<>(streams.values().stream().map(ReplayStream::snapshot).toList());
+        synchronized (finished) {
+            result.addAll(finished.values());
+        }
+        return result;
+    }
+
+    public ReplayStreamDTO pause(String id) {
+        ReplayStreamDTO done = finished.get(id);
+        if (done != null) return done;
+        ReplayStream stream = get(id);
+        stream.setPaused(true);
+        return stream.snapshot();
+    }
+
+    public ReplayStreamDTO resume(String id) {
+        ReplayStreamDTO done = finished.get(id);
+        if (done != null) return done;
+        ReplayStream stream = get(id);
+        stream.setPaused(false);
+        return stream.snapshot();
+    }
+
+    public ReplayStreamDTO stop(String id) {
+        ReplayStreamDTO done = finished.remove(id);
+        if (done != null) return done;
+        ReplayStream stream = get(id);
+        stream.stop();
+        streams.remove(id);
+        return stream.snapshot();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.values().forEach(ReplayStream::stop);
+    }
+
+    private ReplayStream get(String id) {
+        ReplayStream stream = streams.get(id);
+        if (stream == null) {
+            throw new IllegalArgumentException("Unknown replay stream: " + id);
+        }
+        return stream;
+    }
+
+    private final class ReplayStream implements Runnable {
+
+        private final String id;
+        private final ReplayBuffer buffer;
+        private final double speed;
+        private final boolean publishEvents;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition unpaused = lock.newCondition();
+
+        private volatile State state = State.RUNNING;
+        private volatile Thread thread;
+
+        private final AtomicLong cursor = new AtomicLong(0);
+        private final AtomicLong emitted = new AtomicLong(0);
+        private final AtomicLong failures = new AtomicLong(0);
+
+        // Throughput over the last ~1s window, written by the stream thread only
+        private long windowStartNanos = System.nanoTime();
+        private long windowCount = 0;
+        private volatile double throughput = 0.0;
+
+        private ReplayStream(String id, ReplayBuffer buffer, double speed, boolean publishEvents) {
+            this.id = id;
+            this.buffer = buffer;
+            this.speed = speed;
+            this.publishEvents = publishEvents;
+        }
+
+        @Override
+        public void run() {
+            // Pacing anchor: dataset time at anchorIndex maps to wall time anchorNanos
+            long anchorNanos = System.nanoTime();
+            int anchorIndex = 0;
+            try {
+                for (int i = 0; i < buffer.size(); i++) {
+                    if (awaitIfPaused()) {
+                        anchorNanos = System.nanoTime();
+                        anchorIndex = i;
+                    }
+                    if (state == State.STOPPED) return;
+
+                    if (speed > 0) {
+                        long datasetNanos = TimeUnit.SECONDS.toNanos(datasetSecond(i) - datasetSecond(anchorIndex));
+                        long waitNanos = anchorNanos + (long) (Math.max(0, datasetNanos) / speed) - System.nanoTime();
+                        if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+
+                    emit(i);
+                    cursor.set(i + 1);
+                }
+                state = State.COMPLETED;
+                throughput = 0.0;
+                // Keep the summary, drop the stream and with it the dataset buffer
+                finished.put(id, snapshot());
+                streams.remove(id, this);
+                log.info("NEXUS_REPLAY | Stream {} completed | Emitted: {} | Failures: {}", id, emitted.get(), failures.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private long datasetSecond(int row) {
+            long second = buffer.epochSecond(row);
+            return second == Long.MIN_VALUE ? 0L : second;
+        }
+
+        private void emit(int row) {
+            EnergyReading reading = buffer.materialize(row);
+            reading.setCorrelationId(id + "-" + row);
+            try {
+                energyPersistenceService.saveReading(reading);
+                if (publishEvents) {
+                    eventPublisher.publishEvent(reading);
+                }
+                emitted.incrementAndGet();
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                log.debug("NEXUS_REPLAY | Stream {} row {} failed: {}", id, row, e.getMessage());
+            }
+
+            windowCount++;
+            long now = System.nanoTime();
+            long elapsed = now - windowStartNanos;
+            if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+                throughput = windowCount * 1e9 / elapsed;
+                windowStartNanos = now;
+                windowCount = 0;
+            }
+        }
+
+        /** Blocks while paused; returns true if the stream was paused (pacing must re-anchor). */
+        private boolean awaitIfPaused() throws InterruptedException {
+            if (state != State.PAUSED) return false;
+            lock.lock();
+            try {
+                while (state == State.PAUSED) {
+                    unpaused.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+            windowStartNanos = System.nanoTime();
+            windowCount = 0;
+            return true;
+        }
+
+        private void setPaused(boolean paused) {
+            lock.lock();
+            try {
+                if (isFinished()) return;
+                state = paused ? State.PAUSED : State.RUNNING;
+                if (paused) {
+                    throughput = 0.0;
+                } else {
+                    unpaused.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void stop() {
+            lock.lock();
+            try {
+                if (state != State.COMPLETED) state = State.STOPPED;
+                unpaused.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (thread != null) thread.interrupt();
+        }
+
+        private boolean isFinished() {
+            return state == State.COMPLETED || state == State.STOPPED;
+        }
+
+        private ReplayStreamDTO snapshot() {
+            return new ReplayStreamDTO(id, buffer.datasetId(), speed, state.name(), cursor.get(), buffer.size(),
+                    emitted.get(), failures.get(), throughput);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.ai.FeatureEngine;
+import com.energy.energy_server.ai.FeatureWindow;
+import com.energy.energy_server.ai.ModelBundle;
+import com.energy.energy_server.ai.ModelConfig;
+import com.energy.energy_server.dto.ScenarioDTO;
+import com.energy.energy_server.dto.ScenarioRequestDTO;
+import com.energy.energy_server.dto.ScenarioResponseDTO;
+import com.energy.energy_server.dto.ScenarioResultDTO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What-if forecasts on the Digital Twin: the live feature window is perturbed once per
+ * scenario (over all its steps, since the window is what the model conditions on) and all
+ * scenarios, plus an unperturbed baseline, are scored in a single batched forward pass of
+ * the live model. Longer horizons roll every window forward one hour per pass, holding the
+ * perturbed conditions constant and feeding each prediction back as the next Lag1h.
+ *
+ * <p>Responses are cached per (model version, window position, request): repeated questions
+ * between two readings cost a map lookup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScenarioService {
+
+    public static final String BASELINE = "baseline";
+
+    private static final int STEPS = ModelConfig.TIME_STEPS;
+    private static final int FEATURES = FeatureEngine.FEATURES;
+    private static final int LENGTH = STEPS * FEATURES;
+    // Feature rows of the feature-major window
+    private static final int TEMPERATURE = 0;
+    private static final int OCCUPANCY = 1;
+    private static final int SWITCH = 2;
+
+    private final FeatureWindowStore featureWindowStore;
+    private final ModelRegistry modelRegistry;
+
+    private final Cache<CacheKey, ScenarioResponseDTO> cache = CacheBuilder.newBuilder()
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .maximumSize(512)
+            .build();
+
+    private record CacheKey(String modelVersion, long generation, long sequence, ScenarioRequestDTO request) {}
+
+    public ScenarioResponseDTO evaluate(ScenarioRequestDTO request) {
+        ModelBundle bundle = modelRegistry.live();
+        if (bundle == null) {
+            throw new IllegalStateException("AI model not available");
+        }
+        FeatureWindowStore.Latest latest = featureWindowStore.latest();
+        if (latest == null) {
+            throw new IllegalStateException("Not enough readings to build a feature window");
+        }
+        FeatureWindow.Snapshot base = latest.snapshot();
+
+        CacheKey key = new CacheKey(bundle.version(), base.generation(), base.sequence(), request);
+        ScenarioResponseDTO hit = cache.getIfPresent(key);
+        if (hit != null) {
+            return new ScenarioResponseDTO(hit.modelVersion(), hit.horizonHours(), hit.scenarios(), true, 0.0);
+        }
+
+        long start = System.nanoTime();
+        List<ScenarioDTO> scenarios = request.scenarios();
+        int count = scenarios.size() + 1;
+        float[] windows = new float[count * LENGTH];
+        double[] lastConsumption = new double[count];
+        for (int s = 0; s < count; s++) {
+            System.arraycopy(base.window(), 0, windows, s * LENGTH, LENGTH);
+            if (s > 0) perturb(windows, s * LENGTH, scenarios.get(s - 1));
+            lastConsumption[s] = base.consumption();
+        }
+
+        int horizon = request.horizonHours();
+        int hour = FeatureEngine.lastHour(base.window());
+        double[][] hourly = new double[count][horizon];
+        for (int h = 0; h < horizon; h++) {
+            // One forward pass scores every scenario for this hour
+            double[] predictions = bundle.predictWindows(windows, count);
+            hour = (hour + 1) % 24;
+            for (int s = 0; s < count; s++) {
+                hourly[s][h] = predictions[s];
+                if (h < horizon - 1) {
+                    FeatureEngine.rollWindow(windows, s * LENGTH, lastConsumption[s], hour);
+                    lastConsumption[s] = predictions[s];
+                }
+            }
+        }
+
+        double baselineTotal = sum(hourly[0]);
+        List<ScenarioResultDTO> results = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            double total = sum(hourly[s]);
+            List<Double> values = new ArrayList<>(horizon);
+            for (double v : hourly[s]) values.add(v);
+            results.add(new ScenarioResultDTO(s == 0 ? BASELINE : scenarios.get(s - 1).name(), values, total, total - baselineTotal));
+        }
+
+        double computeMs = (System.nanoTime() - start) / 1e6;
+        ScenarioResponseDTO response = new ScenarioResponseDTO(bundle.version(), horizon, results, false, computeMs);
+        cache.put(key, response);
+        log.debug("NEXUS_AI | What-if | {} scenarios x {} h in {} ms", count, horizon, String.format("%.2f", computeMs));
+        return response;
+    }
+
+    private static void perturb(float[] windows, int offset, ScenarioDTO scenario) {
+        for (int t = 0; t < STEPS; t++) {
+            if (scenario.temperatureDelta() != null) {
+                windows[offset + TEMPERATURE * STEPS + t] += scenario.temperatureDelta().floatValue();
+            }
+            if (scenario.occupancyFactor() != null) {
+                windows[offset + OCCUPANCY * STEPS + t] *= scenario.occupancyFactor().floatValue();
+            }
+            if (scenario.lighting() != null) {
+                windows[offset + SWITCH * STEPS + t] = "On".equalsIgnoreCase(scenario.lighting()) ? 1.0f : 0.0f;
+            }
+        }
+    }
+
+    private static double sum(double[] values) {
+        double total = 0;
+        for (double v : values) total += v;
+        return total;
+    }
+}
@@ -0,0 +1,229 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.model.SimulationLease;
+import com.energy.energy_server.repository.EnergyReadingRepository;
+import com.energy.energy_server.repository.SimulationLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * DB-backed leader election for the simulation engine.
+ * Every replica heartbeats the single {@code simulation_leases} row: the owner renews it,
+ * the others take it over once it expires. Control requests (upload, start, stop) may
+ * hit any replica; they are written to the lease row and applied by the leader on its
+ * next heartbeat. Each upload bumps the lease's upload generation, so the leader reloads and
+ * rewinds even when the content-hash dataset id is unchanged. The leader persists its replay
+ * cursor on each heartbeat, and dataset rows carry deterministic correlation ids, so a new
+ * leader skips rows already saved.
+ *
+ * <p>Leadership is fenced by time, not only by the local flag: each renewal lets the leader
+ * replay until the lease TTL (minus a clock-skew margin) measured from when the renewal started.
+ * If renewals fail, e.g. the leader is partitioned from the DB while other replicas are not, it
+ * stops before any other replica can take the lease over, so two leaders never replay at once.
+ */
+@Slf4j
+@Service
+public class SimulationLeaseService {
+
+    private static final String LEASE_NAME = "simulation-engine";
+
+    private final SimulationLeaseRepository leaseRepository;
+    private final EnergyReadingRepository energyReadingRepository;
+    private final SimulationService simulationService;
+    private final IngestionService ingestionService;
+    private final ClusterNode clusterNode;
+
+    private final boolean enabled;
+    private final Duration leaseTtl;
+    private final long fencingWindowNanos;
+    private volatile boolean leaseCreated;
+    // Upload generation of the dataset this leader replays; -1 until it takes over
+    private volatile long appliedGeneration = -1;
+
+    public SimulationLeaseService(SimulationLeaseRepository leaseRepository,
+                                  EnergyReadingRepository energyReadingRepository,
+                                  SimulationService simulationService,
+                                  IngestionService ingestionService,
+                                  ClusterNode clusterNode,
+                                  @Value("${simulation.lease.enabled:true}") boolean enabled,
+                                  @Value("${simulation.lease.ttl-ms:6000}") long leaseTtlMs,
+                                  @Value("${simulation.lease.clock-skew-ms:1000}") long clockSkewMs) {
+        this.leaseRepository = leaseRepository;
+        this.energyReadingRepository = energyReadingRepository;
+        this.simulationService = simulationService;
+        this.ingestionService = ingestionService;
+        this.clusterNode = clusterNode;
+        this.enabled = enabled;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        this.fencingWindowNanos = Duration.ofMillis(Math.max(0, leaseTtlMs - clockSkewMs)).toNanos();
+
+        // Single-node mode: this replica always drives the simulation
+        if (!enabled) {
+            simulationService.getLeader().set(true);
+        }
+    }
+
+    /** False in single-node mode, where this replica always drives the simulation. */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isLeader() {
+        return simulationService.getLeader().get();
+    }
+
+    public void assignDataset(String datasetId) {
+        if (!enabled) return;
+        ensureLease();
+        leaseRepository.assignDataset(LEASE_NAME, datasetId);
+    }
+
+    public void requestStart() {
+        if (enabled) {
+            ensureLease();
+            leaseRepository.updateRunning(LEASE_NAME, true);
+        }
+        if (isLeader()) {
+            simulationService.start();
+        } else {
+            // Mirror immediately; the leader starts on its next heartbeat
+            simulationService.getIsRunning().set(true);
+        }
+    }
+
+    public void requestStop() {
+        if (enabled) {
+            try {
+                leaseRepository.updateRunning(LEASE_NAME, false);
+            } catch (DataAccessException e) {
+                log.warn("NEXUS_LEASE | Could not persist stop request: {}", e.getMessage());
+            }
+        }
+        simulationService.stop();
+    }
+
+    @Scheduled(fixedRateString = "${simulation.lease.heartbeat-ms:2000}")
+    public void heartbeat() {
+        if (!enabled) return;
+
+        String nodeId = clusterNode.getNodeId();
+        // Measured before the renewal: the lease may already count from here on the DB side
+        long renewalStartNanos = System.nanoTime();
+        try {
+            ensureLease();
+            LocalDateTime now = LocalDateTime.now();
+            boolean holds = leaseRepository.tryAcquire(LEASE_NAME, nodeId, now, now.plus(leaseTtl)) == 1;
+            SimulationLease lease = leaseRepository.findById(LEASE_NAME).orElseThrow();
+            if (holds) {
+                simulationService.fenceUntil(renewalStartNanos + fencingWindowNanos);
+            }
+
+            if (holds && !isLeader()) {
+                log.info("NEXUS_LEASE | Leadership ACQUIRED | Node: {} | Dataset: {} | Cursor: {}",
+                        nodeId, lease.getDatasetId(), lease.getReplayCursor());
+                takeOver(lease);
+                simulationService.getLeader().set(true);
+            } else if (!holds && isLeader()) {
+                simulationService.getLeader().set(false);
+                log.warn("NEXUS_LEASE | Leadership LOST | New owner: {}", lease.getOwnerNode());
+            }
+
+            if (holds) {
+                applyControlState(lease);
+                leaseRepository.saveCursor(LEASE_NAME, nodeId, simulationService.getReplayCursor().get());
+            } else {
+                simulationService.getIsRunning().set(lease.isRunning());
+            }
+        } catch (DataAccessException e) {
+            log.debug("NEXUS_LEASE | Heartbeat skipped, DB unreachable: {}", e.getMessage());
+            if (isLeader() && !simulationService.mayReplay()) {
+                // Another replica may own the lease by now; re-acquire (and resume) once the DB is back
+                simulationService.getLeader().set(false);
+                log.warn("NEXUS_LEASE | Leadership FENCED | Lease not renewed before expiry, replay stopped");
+            }
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        if (!enabled || !isLeader()) return;
+        try {
+            simulationService.getLeader().set(false);
+            leaseRepository.saveCursor(LEASE_NAME, clusterNode.getNodeId(), simulationService.getReplayCursor().get());
+            leaseRepository.release(LEASE_NAME, clusterNode.getNodeId(), LocalDateTime.now());
+            log.info("NEXUS_LEASE | Leadership released on shutdown");
+        } catch (DataAccessException e) {
+            log.warn("NEXUS_LEASE | Could not release lease: {}", e.getMessage());
+        }
+    }
+
+    private void takeOver(SimulationLease lease) {
+        appliedGeneration = lease.getUploadGeneration();
+        if (lease.getDatasetId() == null) {
+            return;
+        }
+        if (!lease.getDatasetId().equals(simulationService.getDatasetId())) {
+            loadDataset(lease.getDatasetId());
+        }
+        simulationService.resumeAt(lease.getReplayCursor(),
+                energyReadingRepository::existsByCorrelationId);
+        if (lease.isRunning()) {
+            // Resume in interval mode: the warm-up burst was done by a previous leader
+            simulationService.getIsRunning().set(true);
+        }
+    }
+
+    private void applyControlState(SimulationLease lease) {
+        if (lease.getDatasetId() != null && (!Objects.equals(lease.getDatasetId(), simulationService.getDatasetId())
+                || lease.getUploadGeneration() != appliedGeneration)) {
+            // New or re-uploaded dataset: loading it rewinds the cursor, saved right after
+            if (loadDataset(lease.getDatasetId())) {
+                appliedGeneration = lease.getUploadGeneration();
+            }
+        }
+
+        boolean localRunning = simulationService.getIsRunning().get();
+        if (lease.isRunning() && !simulationService.hasPending()) {
+            // Replay exhausted: publish the stop so followers mirror it
+            leaseRepository.updateRunning(LEASE_NAME, false);
+            if (localRunning) simulationService.stop();
+        } else if (lease.isRunning() && !localRunning) {
+            simulationService.start();
+        } else if (!lease.isRunning() && localRunning) {
+            simulationService.stop();
+        }
+    }
+
+    private boolean loadDataset(String datasetId) {
+        try {
+            simulationService.loadQueue(ingestionService.loadStoredDataset(datasetId));
+            return true;
+        } catch (Exception e) {
+            log.error("NEXUS_LEASE | Dataset {} not readable from shared storage: {}", datasetId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void ensureLease() {
+        if (leaseCreated) {
+            return;
+        }
+        if (!leaseRepository.existsById(LEASE_NAME)) {
+            try {
+                leaseRepository.saveAndFlush(new SimulationLease(LEASE_NAME, null, LocalDateTime.now(), null, 0, 0, false));
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently by another replica
+            }
+        }
+        leaseCreated = true;
+    }
+}
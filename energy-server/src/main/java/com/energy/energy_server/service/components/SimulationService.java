@@ -10,11 +10,10 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
@@ -24,31 +23,90 @@ public class SimulationService {
     private final EnergyPersistenceService energyPersistenceService;
     private final ApplicationEventPublisher eventPublisher;
 
+    // Columnar dataset; entities are materialized one row at a time on replay
     @Getter
-    private final Queue<EnergyReading> ingestionQueue = new ConcurrentLinkedQueue<>();
+    private volatile ReplayBuffer replayBuffer = ReplayBuffer.empty();
     @Getter
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     @Getter
     private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
 
+    // Only the lease holder replays; see SimulationLeaseService
+    @Getter
+    private final AtomicBoolean leader = new AtomicBoolean(false);
+    // Index of the next row to replay from the current buffer
+    @Getter
+    private final AtomicLong replayCursor = new AtomicLong(0);
+    // Lease fencing (System.nanoTime): the leader replays only before the deadline; unfenced in single-node mode
+    private volatile long fenceDeadlineNanos;
+    private volatile boolean fenced = false;
+
     private static final int FIXED_RATE_MS = 2000;
     private static final int BURST_SIZE = 12;
 
-    public void loadQueue(List<EnergyReading> readings) {
-        ingestionQueue.clear();
-        ingestionQueue.addAll(readings);
-        log.info("NEXUS_SIM | Queue loaded with {} records", readings.size());
+    public void loadQueue(ReplayBuffer buffer) {
+        this.replayBuffer = buffer;
+        replayCursor.set(0);
+        log.info("NEXUS_SIM | Queue loaded with {} records | Dataset: {}", buffer.size(), buffer.datasetId());
+        log.info("NEXUS_SIM | Replay buffer memory | {}", buffer.memoryReport());
+    }
+
+    /** Called on every lease renewal: after {@code deadlineNanos} other replicas may own the lease. */
+    public void fenceUntil(long deadlineNanos) {
+        fenceDeadlineNanos = deadlineNanos;
+        fenced = true;
+    }
+
+    /** Leader whose lease is certainly still valid, even if the last renewals did not get through. */
+    public boolean mayReplay() {
+        return leader.get() && (!fenced || fenceDeadlineNanos - System.nanoTime() > 0);
+    }
+
+    public String getDatasetId() {
+        return replayBuffer.datasetId();
+    }
+
+    public boolean hasPending() {
+        return replayCursor.get() < replayBuffer.size();
+    }
+
+    /**
+     * Jumps to {@code cursor}, then past any further rows that are already persisted
+     * (the previous leader may have saved them after its last cursor write).
+     */
+    public void resumeAt(long cursor, Predicate<String> alreadyPersisted) {
+        ReplayBuffer buffer = this.replayBuffer;
+        long position = Math.min(Math.max(cursor, replayCursor.get()), buffer.size());
+        while (position < buffer.size() && alreadyPersisted.test(buffer.correlationId((int) position))) {
+            position++;
+        }
+        replayCursor.set(position);
+        log.info("NEXUS_SIM | Replay cursor restored at {} | Remaining: {}", position, buffer.size() - position);
+    }
+
+    /** Claims the next row and materializes it, or returns null when the dataset is exhausted. */
+    private EnergyReading poll() {
+        ReplayBuffer buffer = this.replayBuffer;
+        while (true) {
+            long row = replayCursor.get();
+            if (row >= buffer.size()) {
+                return null;
+            }
+            if (replayCursor.compareAndSet(row, row + 1)) {
+                return buffer.materialize((int) row);
+            }
+        }
     }
 
     public void start() {
-        if (!ingestionQueue.isEmpty()) {
+        if (hasPending()) {
             isRunning.set(true);
 
             long existingRecords = energyPersistenceService.getRecordCount();
 
             if (existingRecords == 0) {
                 log.info("NEXUS_SIM | Database empty (0 records). Executing warm-up burst.");
-                for (int i = 0; i < BURST_SIZE && !ingestionQueue.isEmpty(); i++) {
+                for (int i = 0; i < BURST_SIZE && hasPending() && mayReplay(); i++) {
                     processSingleStep();
                 }
             } else {
@@ -65,7 +123,7 @@ public class SimulationService {
     }
 
     private void processSingleStep() {
-        EnergyReading reading = ingestionQueue.poll();
+        EnergyReading reading = poll();
         if (reading != null) {
             energyPersistenceService.saveReading(reading);
             eventPublisher.publishEvent(reading);
@@ -74,11 +132,14 @@ public class SimulationService {
 
     @Scheduled(fixedRate = FIXED_RATE_MS)
     public void processSimulationStep() {
-        if (!isRunning.get() || ingestionQueue.isEmpty()) {
-            if (isRunning.get() && ingestionQueue.isEmpty()) stop();
+        if (!mayReplay()) {
+            return;
+        }
+        if (!isRunning.get() || !hasPending()) {
+            if (isRunning.get() && !hasPending()) stop();
             return;
         }
-        EnergyReading reading = ingestionQueue.poll();
+        EnergyReading reading = poll();
         if (reading != null) {
             reading.setTimestamp(LocalDateTime.now());
             String dayName = LocalDateTime.now().getDayOfWeek().getDisplayName(java.time.format.TextStyle.FULL, java.util.Locale.ENGLISH);
@@ -97,4 +158,4 @@ public class SimulationService {
     public long fallbackCount(Throwable t) {
         return energyPersistenceService.consecutiveFailures.get();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,297 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.dto.SystemReportDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalescing layer in front of the SSE subscribers.
+ * Reports are merged latest-wins: publishing only replaces the pending snapshot,
+ * a fixed-rate flush pushes it out, so broadcast cost is bounded by the flush
+ * rate and never by the ingest rate. Each subscriber may further cap its own rate.
+ *
+ * <p>Every event carries an id ({@code <epoch>-<seq>}) and is kept in a bounded
+ * replay ring, so a reconnecting client sending {@code Last-Event-ID} only receives
+ * what it missed. Unknown ids (restart, other node, gap larger than the ring)
+ * fall back to a snapshot of the latest status and report.
+ *
+ * <p>No blocking write happens under the broadcaster lock: it only records events and hands
+ * them to each subscriber, whose own virtual thread writes them out in id order. A slow client
+ * therefore delays nobody else, and its pending updates keep coalescing latest-wins.
+ */
+@Slf4j
+@Service
+public class StreamBroadcaster {
+
+    private static final String UPDATE_EVENT = "update";
+    private static final String STATUS_EVENT = "status";
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final double defaultMaxRate;
+    private final double maxRateLimit;
+
+    private volatile SystemReportDTO pendingReport;
+    private final AtomicLong version = new AtomicLong(0);
+
+    // Replay ring and per-subscriber offer state, guarded by lock; never held while writing
+    private final ReentrantLock lock = new ReentrantLock();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final StreamEvent[] ring;
+    private long nextSeq = 1;
+    private long flushedVersion = 0;
+    private StreamEvent lastUpdate;
+    private StreamEvent lastStatus;
+
+    @Getter
+    private final AtomicLong reportsPublished = new AtomicLong(0);
+    @Getter
+    private final AtomicLong eventsSent = new AtomicLong(0);
+    @Getter
+    private final AtomicLong replays = new AtomicLong(0);
+    @Getter
+    private final AtomicLong snapshotFallbacks = new AtomicLong(0);
+
+    public StreamBroadcaster(
+            @Value("${stream.subscriber.default-max-rate:5}") double defaultMaxRate,
+            @Value("${stream.subscriber.max-rate-limit:10}") double maxRateLimit,
+            @Value("${stream.replay.buffer-size:256}") int replayBufferSize) {
+        this.defaultMaxRate = defaultMaxRate;
+        this.maxRateLimit = maxRateLimit;
+        this.ring = new StreamEvent[Math.max(1, replayBufferSize)];
+    }
+
+    /**
+     * Registers a dashboard. {@code maxRate} is in updates per second; null or
+     * non-positive uses the server default, values above the limit are clamped.
+     * {@code lastEventId} is the {@code Last-Event-ID} header sent on reconnect.
+     */
+    public SseEmitter subscribe(Double maxRate, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+        double rate = (maxRate == null || maxRate <= 0) ? defaultMaxRate : Math.min(maxRate, maxRateLimit);
+        Subscriber subscriber = new Subscriber(emitter, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+
+        emitter.onCompletion(() -> drop(subscriber));
+        emitter.onTimeout(() -> drop(subscriber));
+        emitter.onError(e -> drop(subscriber));
+
+        // Replay and registration happen under the same lock as flush, so nothing is lost or duplicated
+        lock.lock();
+        try {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                resume(subscriber, lastEventId.trim());
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /** Replaces the pending report; intermediate reports are dropped (latest-wins). */
+    public void publish(SystemReportDTO report) {
+        this.pendingReport = report;
+        version.incrementAndGet();
+        reportsPublished.incrementAndGet();
+    }
+
+    /** Status changes are rare and must not be coalesced away, so every subscriber queues them. */
+    public void publishStatus(String status) {
+        List<Subscriber> targets;
+        lock.lock();
+        try {
+            StreamEvent event = record(STATUS_EVENT, status, flushedVersion);
+            lastStatus = event;
+            targets = List.copyOf(subscribers);
+            targets.forEach(subscriber -> subscriber.statuses.add(event));
+        } finally {
+            lock.unlock();
+        }
+        targets.forEach(this::schedule);
+    }
+
+    /** Server-wide cap: at most one pass over the subscribers per flush interval. */
+    @Scheduled(fixedRateString = "${stream.broadcast.flush-interval-ms:100}")
+    public void flush() {
+        List<Subscriber> due = new ArrayList<>();
+        lock.lock();
+        try {
+            long currentVersion = version.get();
+            SystemReportDTO report = this.pendingReport;
+            if (report == null) {
+                return;
+            }
+            if (currentVersion > flushedVersion) {
+                lastUpdate = record(UPDATE_EVENT, report, currentVersion);
+                flushedVersion = currentVersion;
+            }
+
+            long now = System.nanoTime();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.offeredVersion >= lastUpdate.version() || now - subscriber.lastOfferNanos < subscriber.minIntervalNanos) {
+                    continue;
+                }
+                offer(subscriber, lastUpdate, now);
+                due.add(subscriber);
+            }
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(this::schedule);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private void resume(Subscriber subscriber, String lastEventId) {
+        long lastSeq = parseSeq(lastEventId);
+        long oldestSeq = Math.max(1, nextSeq - ring.length);
+
+        if (lastSeq < oldestSeq - 1 || lastSeq >= nextSeq) {
+            // Gap exceeds the ring (or id from another epoch): send a snapshot instead
+            snapshotFallbacks.incrementAndGet();
+            if (lastStatus != null) subscriber.statuses.add(lastStatus);
+            if (lastUpdate != null) offer(subscriber, lastUpdate, System.nanoTime());
+            return;
+        }
+
+        // Replay missed status events in order; updates are full snapshots, so only the newest matters
+        StreamEvent newestUpdate = null;
+        for (long seq = lastSeq + 1; seq < nextSeq; seq++) {
+            StreamEvent event = ring[(int) (seq % ring.length)];
+            if (UPDATE_EVENT.equals(event.name())) {
+                newestUpdate = event;
+            } else {
+                subscriber.statuses.add(event);
+            }
+        }
+        replays.incrementAndGet();
+        if (newestUpdate != null) {
+            offer(subscriber, newestUpdate, System.nanoTime());
+        }
+        // The client already holds every update up to its last id
+        subscriber.offeredVersion = Math.max(subscriber.offeredVersion, flushedVersion);
+    }
+
+    /** Called under the lock: makes {@code update} the subscriber's next update, replacing an unsent one. */
+    private void offer(Subscriber subscriber, StreamEvent update, long now) {
+        subscriber.nextUpdate.set(update);
+        subscriber.offeredVersion = update.version();
+        subscriber.lastOfferNanos = now;
+    }
+
+    /** Starts the subscriber's sender unless it is already running; it picks up everything queued. */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.active && subscriber.running.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (Exception e) {
+                subscriber.running.set(false); // shutting down
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            // Statuses and the pending update go out in event id order
+            StreamEvent update = subscriber.nextUpdate.getAndSet(null);
+            StreamEvent status;
+            while (subscriber.active && (status = subscriber.statuses.poll()) != null) {
+                if (update != null && update.seq() < status.seq()) {
+                    send(subscriber, update);
+                    update = null;
+                }
+                send(subscriber, status);
+            }
+            if (update != null && subscriber.active) {
+                send(subscriber, update);
+            }
+            subscriber.running.set(false);
+        } while (subscriber.active && subscriber.hasPending() && subscriber.running.compareAndSet(false, true));
+    }
+
+    private long parseSeq(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0 || !epoch.equals(lastEventId.substring(0, dash))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private StreamEvent record(String name, Object data, long eventVersion) {
+        long seq = nextSeq++;
+        StreamEvent event = new StreamEvent(seq, epoch + "-" + seq, name, data, eventVersion);
+        ring[(int) (seq % ring.length)] = event;
+        return event;
+    }
+
+    private void send(Subscriber subscriber, StreamEvent event) {
+        try {
+            subscriber.emitter.send(SseEmitter.event().id(event.id()).name(event.name()).data(event.data()));
+            eventsSent.incrementAndGet();
+        } catch (Exception e) {
+            drop(subscriber);
+            log.debug("NEXUS_STREAM | Subscriber dropped: {}", e.getMessage());
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        subscriber.active = false;
+        subscribers.remove(subscriber);
+    }
+
+    private record StreamEvent(long seq, String id, String name, Object data, long version) {}
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final long minIntervalNanos;
+        // Guarded by the broadcaster lock
+        private long lastOfferNanos = Long.MIN_VALUE / 2;
+        private long offeredVersion = 0;
+
+        // Handed over to the subscriber's sender
+        private final Queue<StreamEvent> statuses = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<StreamEvent> nextUpdate = new AtomicReference<>();
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private volatile boolean active = true;
+
+        private Subscriber(SseEmitter emitter, long minIntervalNanos) {
+            this.emitter = emitter;
+            this.minIntervalNanos = minIntervalNanos;
+        }
+
+        private boolean hasPending() {
+            return !statuses.isEmpty() || nextUpdate.get() != null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.dto.StreamEventDTO;
+
+/**
+ * Distributes dashboard events to the broadcaster of every replica.
+ * Implementations deliver each event to the local node exactly once by
+ * re-publishing it as a Spring application event.
+ */
+public interface TelemetryFanout {
+
+    void publish(StreamEventDTO event);
+}
@@ -0,0 +1,215 @@
+package com.energy.energy_server.synthetic;
+
+import com.energy.energy_server.service.components.ReplayBuffer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of realistic building telemetry for large-scale benchmarks.
+ * Rows follow the {@code Energy_consumption.csv} schema and model annual/daily temperature
+ * cycles, weekday occupancy, HVAC and lighting driven by temperature and occupancy, solar
+ * renewable output with cloud noise, holidays, and injected consumption anomalies.
+ *
+ * <p>Randomness is drawn from one {@link SplittableRandom} per simulated day, seeded from
+ * the global seed and the day index, so any day is reproducible on its own and the same
+ * seed always yields the same dataset.
+ */
+public final class SyntheticTelemetryGenerator {
+
+    public static final String CSV_HEADER = "Timestamp,Temperature,Humidity,SquareFootage,Occupancy,HVACUsage,"
+            + "LightingUsage,RenewableEnergy,DayOfWeek,Holiday,EnergyConsumption";
+
+    private static final String ON = "On";
+    private static final String OFF = "Off";
+    private static final String YES = "Yes";
+    private static final String NO = "No";
+    private static final String[] DAY_NAMES = new String[7];
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int STEPS_PER_DAY = 24;
+
+    static {
+        for (DayOfWeek d : DayOfWeek.values()) {
+            DAY_NAMES[d.getValue() - 1] = d.getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        }
+    }
+
+    /**
+     * @param anomalyRate  fraction of rows whose consumption is spiked or dropped
+     * @param holidayRate  fraction of days flagged as holidays
+     */
+    public record Config(long seed, LocalDateTime start, double anomalyRate, double holidayRate) {
+
+        public static Config defaults(long seed) {
+            return new Config(seed, LocalDateTime.of(2022, 1, 1, 0, 0), 0.01, 0.03);
+        }
+    }
+
+    /** Receives generated rows without intermediate objects. */
+    @FunctionalInterface
+    public interface RowSink {
+        void accept(long epochSecond, double temperature, double humidity, double squareFootage, int occupancy,
+                    String hvac, String lighting, double renewable, String dayOfWeek, String holiday,
+                    double consumption);
+    }
+
+    private final Config config;
+    private final long startEpochSecond;
+    private final int startDayOfWeek;
+    private final int startDayOfYear;
+
+    public SyntheticTelemetryGenerator(Config config) {
+        this.config = config;
+        LocalDateTime start = config.start().withMinute(0).withSecond(0).withNano(0).withHour(0);
+        this.startEpochSecond = start.toEpochSecond(ZoneOffset.UTC);
+        this.startDayOfWeek = start.getDayOfWeek().getValue() - 1;
+        this.startDayOfYear = start.getDayOfYear() - 1;
+    }
+
+    /** Emits {@code rows} hourly readings, starting at midnight of the configured start day. */
+    public void generate(long rows, RowSink sink) {
+        long days = (rows + STEPS_PER_DAY - 1) / STEPS_PER_DAY;
+        long emitted = 0;
+        for (long day = 0; day < days && emitted < rows; day++) {
+            SplittableRandom rng = new SplittableRandom(mix(config.seed(), day));
+            int dow = (int) ((startDayOfWeek + day) % 7);
+            boolean weekend = dow >= 5;
+            boolean holiday = rng.nextDouble() < config.holidayRate();
+            double doy = (startDayOfYear + day) % 365;
+            // Annual cycle peaks mid-July; per-day weather offset and cloudiness
+            double seasonalTemp = 22.0 + 6.0 * Math.sin(2 * Math.PI * (doy - 105) / 365.0) + rng.nextGaussian() * 1.5;
+            double cloudiness = rng.nextDouble();
+            double squareFootage = 1000.0 + rng.nextDouble() * 1000.0;
+
+            for (int hour = 0; hour < STEPS_PER_DAY && emitted < rows; hour++, emitted++) {
+                double temp = seasonalTemp + 3.5 * Math.sin(2 * Math.PI * (hour - 9) / 24.0) + rng.nextGaussian() * 0.8;
+                double humidity = clamp(50.0 - 1.5 * (temp - 22.0) + rng.nextGaussian() * 5.0, 20.0, 90.0);
+
+                boolean workingHours = hour >= 8 && hour < 19;
+                double occMean = (weekend || holiday) ? (workingHours ? 2.5 : 0.8) : (workingHours ? 7.0 : 1.2);
+                int occupancy = (int) clamp(Math.round(occMean + rng.nextGaussian() * 1.3), 0, 9);
+
+                // HVAC more likely the further from comfort and the more people inside
+                double hvacScore = Math.abs(temp - 21.0) / 4.0 + occupancy / 9.0 - 0.8;
+                boolean hvacOn = rng.nextDouble() < 1.0 / (1.0 + Math.exp(-3.0 * hvacScore));
+                boolean dark = hour < 7 || hour >= 19;
+                boolean lightingOn = occupancy > 2 ? rng.nextDouble() < 0.85 : (dark && rng.nextDouble() < 0.35);
+
+                double sun = Math.max(0.0, Math.sin(Math.PI * (hour - 6) / 12.0));
+                double renewable = clamp(30.0 * sun * (1.0 - 0.7 * cloudiness) + rng.nextGaussian() * 1.5 * sun, 0.0, 30.0);
+
+                double consumption = 62.0
+                        + 1.1 * occupancy
+                        + (hvacOn ? 7.0 + 0.6 * Math.abs(temp - 21.0) : 0.0)
+                        + (lightingOn ? 3.0 : 0.0)
+                        + 0.004 * (squareFootage - 1500.0)
+                        - 0.12 * renewable
+                        + 2.0 * Math.sin(2 * Math.PI * (hour - 14) / 24.0)
+                        + rng.nextGaussian() * 2.0;
+                if (rng.nextDouble() < config.anomalyRate()) {
+                    consumption *= rng.nextBoolean() ? 1.3 + rng.nextDouble() * 0.3 : 0.55 + rng.nextDouble() * 0.15;
+                }
+
+                sink.accept(startEpochSecond + (day * STEPS_PER_DAY + hour) * 3600L,
+                        temp, humidity, squareFootage, occupancy,
+                        hvacOn ? ON : OFF, lightingOn ? ON : OFF, renewable,
+                        DAY_NAMES[dow], holiday ? YES : NO, Math.max(0.0, consumption));
+            }
+        }
+    }
+
+    /** Generates straight into a columnar buffer that {@code SimulationService} can replay. */
+    public ReplayBuffer toBuffer(String datasetId, int rows) {
+        ReplayBuffer.Builder builder = ReplayBuffer.builder(datasetId, rows);
+        generate(rows, builder::add);
+        return builder.build();
+    }
+
+    /** Writes a CSV accepted by {@code IngestionService} and {@code Train}. */
+    public void writeCsv(Path path, long rows) throws IOException {
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 1 << 16)) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+            StringBuilder line = new StringBuilder(160);
+            IOException[] failure = new IOException[1];
+            generate(rows, (ts, temp, hum, sqft, occ, hvac, light, ren, day, hol, cons) -> {
+                if (failure[0] != null) return;
+                line.setLength(0);
+                line.append(TIMESTAMP.format(LocalDateTime.ofEpochSecond(ts, 0, ZoneOffset.UTC))).append(',');
+                appendFixed(line, temp).append(',');
+                appendFixed(line, hum).append(',');
+                appendFixed(line, sqft).append(',');
+                line.append(occ).append(',')
+                        .append(hvac).append(',')
+                        .append(light).append(',');
+                appendFixed(line, ren).append(',');
+                line.append(day).append(',')
+                        .append(hol).append(',');
+                appendFixed(line, cons).append('\n');
+                try {
+                    out.append(line);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+        }
+    }
+
+    /** Usage: SyntheticTelemetryGenerator [rows] [seed] [output.csv] */
+    public static void main(String[] args) throws Exception {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        Path output = Path.of(args.length > 2 ? args[2] : "dataset/synthetic_" + seed + "_" + rows + ".csv");
+
+        SyntheticTelemetryGenerator generator = new SyntheticTelemetryGenerator(Config.defaults(seed));
+
+        long[] checksum = new long[1];
+        long t0 = System.nanoTime();
+        generator.generate(rows, (ts, temp, hum, sqft, occ, hvac, light, ren, day, hol, cons) ->
+                checksum[0] += Double.doubleToLongBits(cons) ^ ts);
+        double genSeconds = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("In-memory generation: %,d rows in %.2fs (%,.0f rows/s) | checksum %x%n",
+                rows, genSeconds, rows / genSeconds, checksum[0]);
+
+        long t1 = System.nanoTime();
+        generator.writeCsv(output, rows);
+        double csvSeconds = (System.nanoTime() - t1) / 1e9;
+        System.out.printf("CSV export: %s in %.2fs (%,.0f rows/s)%n", output, csvSeconds, rows / csvSeconds);
+    }
+
+    // Two decimals, no String.format / Double.toString allocation per value
+    private static StringBuilder appendFixed(StringBuilder sb, double value) {
+        long scaled = Math.round(value * 100.0);
+        if (scaled < 0) {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        long fraction = scaled % 100;
+        sb.append(scaled / 100).append('.');
+        if (fraction < 10) sb.append('0');
+        return sb.append(fraction);
+    }
+
+    private static double clamp(double v, double min, double max) {
+        return v < min ? min : (v > max ? max : v);
+    }
+
+    private static long mix(long seed, long day) {
+        long z = seed + (day + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,110 @@
+package com.energy.energy_server.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeatureWindowTest {
+
+    private static final int STEPS = ModelConfig.TIME_STEPS;
+    private static final int LAG = 3;
+
+    @Test
+    void firstRowLagsItsOwnConsumption() {
+        FeatureWindow window = new FeatureWindow();
+        window.append(20, 5, "On", 42.0, 10);
+
+        assertThat(window.copyLatest(new float[FeatureEngine.FEATURES])[LAG]).isEqualTo(42.0f);
+    }
+
+    @Test
+    void laterRowsLagThePreviousConsumption() {
+        FeatureWindow window = fill(new FeatureWindow(), 0);
+
+        float[] values = window.copyWindow(new float[STEPS * FeatureEngine.FEATURES]);
+        assertThat(values[LAG * STEPS]).isEqualTo(consumption(0));
+        for (int t = 1; t < STEPS; t++) {
+            assertThat(values[LAG * STEPS + t]).isEqualTo(consumption(t - 1));
+        }
+    }
+
+    @Test
+    void primedLagFeedsTheNextRow() {
+        FeatureWindow window = new FeatureWindow();
+        window.primeLag(7.5);
+        window.append(20, 5, "On", 42.0, 10);
+
+        assertThat(window.copyLatest(new float[FeatureEngine.FEATURES])[LAG]).isEqualTo(7.5f);
+    }
+
+    @Test
+    void resetForgetsTheLastConsumption() {
+        FeatureWindow window = fill(new FeatureWindow(), 0);
+        long generation = window.generation();
+        window.reset();
+        window.append(20, 5, "On", 42.0, 10);
+
+        assertThat(window.copyLatest(new float[FeatureEngine.FEATURES])[LAG]).isEqualTo(42.0f);
+        assertThat(window.generation()).isEqualTo(generation + 1);
+        assertThat(window.isFull()).isFalse();
+        assertThat(window.snapshot()).isNull();
+    }
+
+    @Test
+    void snapshotCarriesTheLagOfTheNextRow() {
+        FeatureWindow window = fill(new FeatureWindow(), 0);
+
+        FeatureWindow.Snapshot snapshot = window.snapshot();
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.consumption()).isEqualTo(consumption(STEPS - 1));
+        assertThat(snapshot.sequence()).isEqualTo(STEPS);
+    }
+
+    @Test
+    void matchesTrainingWindowsFromTheCsv(@TempDir Path dir) throws Exception {
+        int rows = STEPS + 5;
+        List<String> lines = new ArrayList<>();
+        lines.add("Timestamp,Temperature,Humidity,SquareFootage,Occupancy,HVACUsage,LightingUsage,RenewableEnergy,DayOfWeek,Holiday,EnergyConsumption");
+        for (int i = 0; i < rows; i++) {
+            lines.add(String.format("2024-01-01 %02d:00:00,%s,40,1500,%d,On,%s,5,Monday,No,%s",
+                    i % 24, temperature(i), i % 10, lighting(i), consumption(i)));
+        }
+        File csv = dir.resolve("readings.csv").toFile();
+        Files.write(csv.toPath(), lines);
+        FeatureEngine.Series series = FeatureEngine.loadCsv(csv);
+
+        // The online window over the last TIME_STEPS rows equals the training window ending there
+        FeatureWindow window = new FeatureWindow();
+        for (int i = 0; i < rows; i++) {
+            window.append(temperature(i), i % 10, lighting(i), consumption(i), i % 24);
+        }
+        float[] training = series.windows(rows - STEPS, 1).data().asFloat();
+        assertThat(window.copyWindow(new float[STEPS * FeatureEngine.FEATURES])).containsExactly(training);
+    }
+
+    private static FeatureWindow fill(FeatureWindow window, int from) {
+        for (int i = from; i < from + STEPS; i++) {
+            window.append(temperature(i), i % 10, lighting(i), consumption(i), i % 24);
+        }
+        return window;
+    }
+
+    private static float consumption(int i) {
+        return 50 + i * 1.5f;
+    }
+
+    private static float temperature(int i) {
+        return 18 + (i % 7) * 0.5f;
+    }
+
+    private static String lighting(int i) {
+        return i % 3 == 0 ? "Off" : "On";
+    }
+}
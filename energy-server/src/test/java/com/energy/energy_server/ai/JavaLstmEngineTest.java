@@ -0,0 +1,81 @@
+package com.energy.energy_server.ai;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class JavaLstmEngineTest {
+
+    private static final int STEPS = ModelConfig.TIME_STEPS;
+    private static final int FEATURES = ModelConfig.INPUT_FEATURES;
+
+    private static MultiLayerNetwork model;
+    private static NormalizerStandardize normalizer;
+
+    @BeforeAll
+    static void buildModel() {
+        model = new MultiLayerNetwork(LstmArchitecture.build());
+        model.init();
+
+        // Statistics on a realistic scale (kWh around 75) so the denormalized error is meaningful
+        Random random = new Random(7);
+        int samples = 256;
+        float[] features = new float[samples * FEATURES * STEPS];
+        float[] labels = new float[samples * STEPS];
+        for (int i = 0; i < features.length; i++) features[i] = randomFeature(random, (i / STEPS) % FEATURES);
+        for (int i = 0; i < labels.length; i++) labels[i] = (float) (75 + 10 * random.nextGaussian());
+        normalizer = new NormalizerStandardize();
+        normalizer.fitLabel(true);
+        normalizer.fit(new DataSet(
+                Nd4j.create(features, new long[]{samples, FEATURES, STEPS}, 'c'),
+                Nd4j.create(labels, new long[]{samples, 1, STEPS}, 'c')));
+    }
+
+    @Test
+    void matchesNetworkOutputOnRandomWindows() {
+        JavaLstmEngine engine = new JavaLstmEngine(model, normalizer);
+        Random random = new Random(42);
+        for (int n = 0; n < 200; n++) {
+            float[] window = new float[FEATURES * STEPS];
+            for (int i = 0; i < window.length; i++) window[i] = randomFeature(random, i / STEPS);
+
+            // Same feature-major layout as the batcher: [1, FEATURES, STEPS]
+            INDArray input = Nd4j.create(window.clone(), new long[]{1, FEATURES, STEPS}, 'c');
+            double expected = ModelBundle.score(model, normalizer, input)[0];
+
+            assertThat(engine.predict(window)).isCloseTo(expected, within(1e-5));
+        }
+    }
+
+    @Test
+    void isStatelessAcrossCalls() {
+        JavaLstmEngine engine = new JavaLstmEngine(model, normalizer);
+        Random random = new Random(3);
+        float[] window = new float[FEATURES * STEPS];
+        for (int i = 0; i < window.length; i++) window[i] = randomFeature(random, i / STEPS);
+
+        double first = engine.predict(window);
+        engine.predict(new float[FEATURES * STEPS]);
+        assertThat(engine.predict(window)).isEqualTo(first);
+    }
+
+    /** Values in the range of the engineered feature (temperature, occupancy, lighting, lag, hour sin/cos). */
+    private static float randomFeature(Random random, int feature) {
+        return switch (feature) {
+            case 0 -> (float) (15 + 10 * random.nextDouble());
+            case 1 -> random.nextInt(10);
+            case 2 -> random.nextInt(2);
+            case 3 -> (float) (75 + 10 * random.nextGaussian());
+            default -> (float) (2 * random.nextDouble() - 1);
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.energy.energy_server.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StatisticalDetectorTest {
+
+    @Test
+    void scoresNothingWhileAnHourWarmsUp() {
+        StatisticalDetector detector = new StatisticalDetector(0.05, 5, 3.0, 0.01);
+        for (int i = 1; i <= 5; i++) {
+            assertThat(detector.scoreAndUpdate(8, i)).isNaN();
+        }
+        assertThat(detector.scoreAndUpdate(8, 3)).isNotNaN();
+    }
+
+    @Test
+    void warmUpIsAPlainMeanAndVariance() {
+        StatisticalDetector detector = new StatisticalDetector(0.05, 5, 3.0, 0.01);
+        for (int i = 1; i <= 5; i++) {
+            detector.scoreAndUpdate(8, i);
+        }
+
+        // Values 1..5: mean 3, population variance 2
+        assertThat(detector.expected(8)).isCloseTo(3.0, within(1e-9));
+        assertThat(detector.scoreAndUpdate(8, 3 + 2 * Math.sqrt(2))).isCloseTo(2.0, within(1e-9));
+    }
+
+    @Test
+    void keepsHoursIndependent() {
+        StatisticalDetector detector = new StatisticalDetector(0.05, 2, 3.0, 0.01);
+        detector.scoreAndUpdate(8, 100);
+        detector.scoreAndUpdate(8, 100);
+
+        assertThat(detector.expected(8)).isEqualTo(100.0);
+        assertThat(detector.expected(9)).isZero();
+        assertThat(detector.scoreAndUpdate(9, 100)).isNaN();
+    }
+
+    @Test
+    void flooredStdBoundsScoresOfFlatSeries() {
+        StatisticalDetector detector = new StatisticalDetector(0.05, 5, 3.0, 0.5);
+        for (int i = 0; i < 5; i++) {
+            detector.scoreAndUpdate(0, 10);
+        }
+
+        assertThat(detector.scoreAndUpdate(0, 11)).isCloseTo(2.0, within(1e-9));
+    }
+
+    @Test
+    void outliersCannotDragTheBaselineBeyondTheClip() {
+        double alpha = 0.1;
+        double clip = 3.0;
+        double minStd = 1.0;
+        StatisticalDetector detector = new StatisticalDetector(alpha, 5, clip, minStd);
+        // Past 1 / alpha samples, so the EWMA weight is alpha
+        for (int i = 0; i < 20; i++) {
+            detector.scoreAndUpdate(12, 50);
+        }
+
+        double z = detector.scoreAndUpdate(12, 5_000);
+        assertThat(z).isCloseTo(4_950.0, within(1e-9));
+        // The update was winsorized to clip * std: the mean moved by alpha * 3 kWh, not alpha * 4950
+        assertThat(detector.expected(12)).isCloseTo(50 + alpha * clip * minStd, within(1e-9));
+    }
+
+    @Test
+    void resetStartsAWarmUpAgain() {
+        StatisticalDetector detector = new StatisticalDetector(0.05, 2, 3.0, 0.01);
+        detector.scoreAndUpdate(3, 10);
+        detector.scoreAndUpdate(3, 12);
+        detector.reset();
+
+        assertThat(detector.expected(3)).isZero();
+        assertThat(detector.scoreAndUpdate(3, 10)).isNaN();
+    }
+}
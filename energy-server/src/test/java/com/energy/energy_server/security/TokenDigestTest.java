@@ -0,0 +1,24 @@
+package com.energy.energy_server.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenDigestTest {
+
+    @Test
+    void hexFormRoundTrips() {
+        TokenDigest digest = TokenDigest.of("header.payload.signature");
+
+        assertThat(digest.toHex()).hasSize(32).matches("[0-9a-f]{32}");
+        assertThat(TokenDigest.fromHex(digest.toHex())).isEqualTo(digest);
+    }
+
+    @Test
+    void hexFormKeepsLeadingZerosAndSignBits() {
+        TokenDigest digest = new TokenDigest(1L, -1L);
+
+        assertThat(digest.toHex()).isEqualTo("0000000000000001ffffffffffffffff");
+        assertThat(TokenDigest.fromHex(digest.toHex())).isEqualTo(digest);
+    }
+}
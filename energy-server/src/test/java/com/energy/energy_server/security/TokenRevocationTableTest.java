@@ -0,0 +1,85 @@
+package com.energy.energy_server.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationTableTest {
+
+    private static final long HOUR_MS = 3_600_000;
+
+    @Test
+    void containsDigestUntilItExpires() {
+        TokenRevocationTable table = new TokenRevocationTable(16);
+        long now = System.currentTimeMillis();
+        table.add(1L, 2L, now + HOUR_MS);
+
+        assertThat(table.contains(1L, 2L, now)).isTrue();
+        assertThat(table.contains(1L, 3L, now)).isFalse();
+        assertThat(table.contains(1L, 2L, now + HOUR_MS + 1000)).isFalse();
+    }
+
+    @Test
+    void ignoresAlreadyExpiredTokens() {
+        TokenRevocationTable table = new TokenRevocationTable(16);
+        long now = System.currentTimeMillis();
+        table.add(1L, 2L, now - 1000);
+
+        assertThat(table.size()).isZero();
+        assertThat(table.contains(1L, 2L, now)).isFalse();
+    }
+
+    @Test
+    void keepsTheLaterExpiryWhenAddedTwice() {
+        TokenRevocationTable table = new TokenRevocationTable(16);
+        long now = System.currentTimeMillis();
+        table.add(1L, 2L, now + 2 * HOUR_MS);
+        table.add(1L, 2L, now + HOUR_MS);
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.contains(1L, 2L, now + HOUR_MS + 1000)).isTrue();
+    }
+
+    @Test
+    void findsDigestsThatShareASlot() {
+        TokenRevocationTable table = new TokenRevocationTable(16);
+        long now = System.currentTimeMillis();
+        // Same low bits: both land on the same home slot and one is probed past
+        table.add(1L, 16L, now + HOUR_MS);
+        table.add(2L, 16L, now + HOUR_MS);
+
+        assertThat(table.contains(1L, 16L, now)).isTrue();
+        assertThat(table.contains(2L, 16L, now)).isTrue();
+        assertThat(table.contains(3L, 16L, now)).isFalse();
+    }
+
+    @Test
+    void growsWithoutLosingEntries() {
+        TokenRevocationTable table = new TokenRevocationTable(16);
+        long now = System.currentTimeMillis();
+        for (long i = 0; i < 10_000; i++) {
+            table.add(i, i * 0x9E3779B97F4A7C15L, now + HOUR_MS);
+        }
+
+        assertThat(table.size()).isEqualTo(10_000);
+        for (long i = 0; i < 10_000; i++) {
+            assertThat(table.contains(i, i * 0x9E3779B97F4A7C15L, now)).isTrue();
+        }
+    }
+
+    @Test
+    void purgeDropsOnlyExpiredEntries() {
+        TokenRevocationTable table = new TokenRevocationTable(16);
+        long now = System.currentTimeMillis();
+        table.add(1L, 1L, now + HOUR_MS);
+        table.add(2L, 2L, now + 2 * HOUR_MS);
+        table.add(3L, 3L, now + 2 * HOUR_MS);
+
+        long later = now + HOUR_MS + 1000;
+        assertThat(table.purgeExpired(later)).isEqualTo(1);
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.contains(2L, 2L, later)).isTrue();
+        assertThat(table.contains(3L, 3L, later)).isTrue();
+        assertThat(table.purgeExpired(later)).isZero();
+    }
+}
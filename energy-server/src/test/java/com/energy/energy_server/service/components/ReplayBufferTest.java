@@ -0,0 +1,112 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.model.EnergyReading;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplayBufferTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void materializesEveryColumnAsAdded() {
+        ReplayBuffer buffer = ReplayBuffer.builder("ds", 1)
+                .add(START, 21.5, 40.0, 1500.0, 7, "On", "Off", 12.5, "Monday", "No", 75.25)
+                .build();
+
+        EnergyReading r = buffer.materialize(0);
+        assertThat(r.getTimestamp()).isEqualTo(START);
+        assertThat(r.getTemperature()).isEqualTo(21.5);
+        assertThat(r.getHumidity()).isEqualTo(40.0);
+        assertThat(r.getSquareFootage()).isEqualTo(1500.0);
+        assertThat(r.getOccupancy()).isEqualTo(7);
+        assertThat(r.getHvacUsage()).isEqualTo("On");
+        assertThat(r.getLightingUsage()).isEqualTo("Off");
+        assertThat(r.getRenewableEnergy()).isEqualTo(12.5);
+        assertThat(r.getDayOfWeek()).isEqualTo("Monday");
+        assertThat(r.getHoliday()).isEqualTo("No");
+        assertThat(r.getEnergyConsumption()).isEqualTo(75.25);
+        assertThat(r.getCorrelationId()).isEqualTo("ds-0");
+        assertThat(r.getId()).isNull();
+        assertThat(buffer.epochSecond(0)).isEqualTo(START.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    @Test
+    void keepsNullsApartFromValues() {
+        ReplayBuffer buffer = ReplayBuffer.builder("ds", 2)
+                .add(null, null, null, null, null, null, null, null, null, null, null)
+                .add(START, 0.0, 0.0, 0.0, 0, "On", "On", 0.0, "Monday", "No", 0.0)
+                .build();
+
+        EnergyReading empty = buffer.materialize(0);
+        assertThat(empty.getTimestamp()).isNull();
+        assertThat(empty.getTemperature()).isNull();
+        assertThat(empty.getOccupancy()).isNull();
+        assertThat(empty.getHvacUsage()).isNull();
+        assertThat(empty.getEnergyConsumption()).isNull();
+        assertThat(buffer.epochSecond(0)).isEqualTo(Long.MIN_VALUE);
+
+        EnergyReading zero = buffer.materialize(1);
+        assertThat(zero.getTemperature()).isEqualTo(0.0);
+        assertThat(zero.getOccupancy()).isZero();
+        assertThat(zero.getHvacUsage()).isEqualTo("On");
+    }
+
+    @Test
+    void growsPastTheExpectedRowCount() {
+        ReplayBuffer.Builder builder = ReplayBuffer.builder("ds", 0);
+        for (int i = 0; i < 1000; i++) {
+            builder.add(START.plusHours(i), 20.0, 40.0, 1500.0, i, i % 2 == 0 ? "On" : "Off", "On", 0.0,
+                    "Monday", "No", (double) i);
+        }
+        ReplayBuffer buffer = builder.build();
+
+        assertThat(buffer.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            EnergyReading r = buffer.materialize(i);
+            assertThat(r.getTimestamp()).isEqualTo(START.plusHours(i));
+            assertThat(r.getOccupancy()).isEqualTo(i);
+            assertThat(r.getHvacUsage()).isEqualTo(i % 2 == 0 ? "On" : "Off");
+            assertThat(r.getEnergyConsumption()).isEqualTo(i);
+            assertThat(r.getCorrelationId()).isEqualTo("ds-" + i);
+        }
+    }
+
+    @Test
+    void rejectsMoreThan256DistinctCategories() {
+        ReplayBuffer.Builder builder = ReplayBuffer.builder("ds", 300);
+        for (int i = 0; i < 256; i++) {
+            builder.add(START, 0.0, 0.0, 0.0, 0, "hvac-" + i, "On", 0.0, "Monday", "No", 0.0);
+        }
+
+        assertThatThrownBy(() -> builder.add(START, 0.0, 0.0, 0.0, 0, "hvac-256", "On", 0.0, "Monday", "No", 0.0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("HVACUsage");
+    }
+
+    @Test
+    void materializesAFreshEntityEachTime() {
+        ReplayBuffer buffer = ReplayBuffer.builder("ds", 1)
+                .add(START, 21.5, 40.0, 1500.0, 7, "On", "Off", 12.5, "Monday", "No", 75.25)
+                .build();
+
+        EnergyReading first = buffer.materialize(0);
+        first.setEnergyConsumption(0.0);
+
+        assertThat(buffer.materialize(0)).isNotSameAs(first);
+        assertThat(buffer.materialize(0).getEnergyConsumption()).isEqualTo(75.25);
+    }
+
+    @Test
+    void emptyBufferHasNoRows() {
+        ReplayBuffer empty = ReplayBuffer.empty();
+
+        assertThat(empty.size()).isZero();
+        assertThat(empty.datasetId()).isNull();
+    }
+}
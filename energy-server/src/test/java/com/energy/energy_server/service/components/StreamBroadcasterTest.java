@@ -0,0 +1,139 @@
+package com.energy.energy_server.service.components;
+
+import com.energy.energy_server.dto.SystemReportDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+class StreamBroadcasterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private StreamBroadcaster broadcaster;
+    private MockMvc mockMvc;
+
+    @RestController
+    public static class StreamController {
+        private final StreamBroadcaster broadcaster;
+
+        StreamController(StreamBroadcaster broadcaster) {
+            this.broadcaster = broadcaster;
+        }
+
+        @GetMapping("/stream")
+        public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return broadcaster.subscribe(100.0, lastEventId);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new StreamBroadcaster(100, 100, 4);
+        mockMvc = standaloneSetup(new StreamController(broadcaster)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void resumeReplaysOnlyMissedStatusesAndTheNewestUpdate() throws Exception {
+        MockHttpServletResponse first = connect(null);
+        broadcaster.publishStatus("A");
+        String idOfA = awaitEventId(first, "A");
+
+        broadcaster.publish(new SystemReportDTO());
+        broadcaster.flush();
+        broadcaster.publishStatus("B");
+        broadcaster.publish(new SystemReportDTO());
+        broadcaster.flush();
+
+        MockHttpServletResponse resumed = connect(idOfA);
+        await().atMost(TIMEOUT).until(() -> resumed.getContentAsString().contains("event:update"));
+        String events = resumed.getContentAsString();
+
+        assertThat(events).doesNotContain("data:A").contains("data:B");
+        // Updates are full snapshots: of the two missed ones only the newest is sent, after B
+        assertThat(events.split("event:update", -1)).hasSize(2);
+        assertThat(events.indexOf("data:B")).isLessThan(events.indexOf("event:update"));
+        assertThat(broadcaster.getReplays().get()).isEqualTo(1);
+        assertThat(broadcaster.getSnapshotFallbacks().get()).isZero();
+    }
+
+    @Test
+    void resumeAtTheLatestIdSendsNothing() throws Exception {
+        MockHttpServletResponse first = connect(null);
+        broadcaster.publishStatus("A");
+        String idOfA = awaitEventId(first, "A");
+
+        MockHttpServletResponse resumed = connect(idOfA);
+        broadcaster.publishStatus("B");
+        await().atMost(TIMEOUT).until(() -> resumed.getContentAsString().contains("data:B"));
+
+        assertThat(resumed.getContentAsString()).doesNotContain("data:A");
+    }
+
+    @Test
+    void unknownIdFallsBackToTheLatestSnapshot() throws Exception {
+        broadcaster.publishStatus("A");
+        broadcaster.publishStatus("B");
+
+        MockHttpServletResponse resumed = connect("other-epoch-1");
+        await().atMost(TIMEOUT).until(() -> resumed.getContentAsString().contains("data:B"));
+
+        assertThat(resumed.getContentAsString()).doesNotContain("data:A");
+        assertThat(broadcaster.getSnapshotFallbacks().get()).isEqualTo(1);
+    }
+
+    @Test
+    void gapLargerThanTheRingFallsBackToTheLatestSnapshot() throws Exception {
+        MockHttpServletResponse first = connect(null);
+        broadcaster.publishStatus("A");
+        String idOfA = awaitEventId(first, "A");
+        for (int i = 0; i < 8; i++) {
+            broadcaster.publishStatus("S" + i);
+        }
+
+        MockHttpServletResponse resumed = connect(idOfA);
+        await().atMost(TIMEOUT).until(() -> resumed.getContentAsString().contains("data:S7"));
+
+        assertThat(resumed.getContentAsString()).doesNotContain("data:S6");
+        assertThat(broadcaster.getSnapshotFallbacks().get()).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse connect(String lastEventId) throws Exception {
+        var builder = get("/stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String awaitEventId(MockHttpServletResponse response, String data) {
+        Pattern event = Pattern.compile("id:(\\S+)\\nevent:status\\ndata:" + Pattern.quote(data) + "\\n");
+        await().atMost(TIMEOUT).until(() -> event.matcher(response.getContentAsString()).find());
+        Matcher matcher = event.matcher(response.getContentAsString());
+        assertThat(matcher.find()).isTrue();
+        return matcher.group(1);
+    }
+}